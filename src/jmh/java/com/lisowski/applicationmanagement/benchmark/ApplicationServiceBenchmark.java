@@ -0,0 +1,86 @@
+package com.lisowski.applicationmanagement.benchmark;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationSummary;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.service.ApplicationCursor;
+import com.lisowski.applicationmanagement.service.ApplicationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths against a seeded database: status transitions and the offset and keyset listings,
+ * both on the first page and on the last one.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApplicationServiceBenchmark {
+    private static final int PAGE_SIZE = 10;
+    /**
+     * Each pass over the transition pool moves every application one step further, so an iteration running more
+     * operations than the pool holds keeps making valid transitions. Only after the last step are the
+     * applications moved back to CREATED within the measurement, once every {@code TRANSITION_LAPS.length} passes.
+     */
+    private static final Status[] TRANSITION_LAPS = {Status.VERIFIED, Status.ACCEPTED, Status.REJECTED};
+
+    private ApplicationService applicationService;
+    private SeededDatabase database;
+    private int transitionPool;
+    private long nextTransitionId;
+    private int transitionLap;
+    private String lastPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        this.database = database;
+        applicationService = database.bean(ApplicationService.class);
+        transitionPool = database.rows;
+        lastPageCursor = ApplicationCursor.encode((long) database.rows - PAGE_SIZE);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTransitions() {
+        database.resetToCreated(transitionPool);
+        nextTransitionId = 1;
+        transitionLap = 0;
+    }
+
+    @Benchmark
+    public Application updateApplicationStatus() {
+        if (nextTransitionId > transitionPool) {
+            nextTransitionId = 1;
+            if (++transitionLap == TRANSITION_LAPS.length) {
+                resetTransitions();
+            }
+        }
+        return applicationService.updateApplicationStatus(TRANSITION_LAPS[transitionLap], nextTransitionId++, "benchmark");
+    }
+
+    @Benchmark
+    public Page<Application> getApplicationsFirstPage() {
+        return applicationService.getApplications(PageRequest.of(0, PAGE_SIZE), null, null);
+    }
+
+    @Benchmark
+    public Page<Application> getApplicationsLastPage(SeededDatabase database) {
+        return applicationService.getApplications(PageRequest.of(database.rows / PAGE_SIZE - 1, PAGE_SIZE), null, null);
+    }
+
+    @Benchmark
+    public Page<ApplicationSummary> getApplicationSummariesLastPage(SeededDatabase database) {
+        return applicationService.getApplicationSummaries(PageRequest.of(database.rows / PAGE_SIZE - 1, PAGE_SIZE), null, null);
+    }
+
+    @Benchmark
+    public Slice<ApplicationSummary> getApplicationSummariesAfterLastCursor() {
+        return applicationService.getApplicationSummariesAfter(lastPageCursor, PAGE_SIZE, null, null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.lisowski.applicationmanagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lisowski.applicationmanagement.mapper.ApplicationAudMapper;
+import com.lisowski.applicationmanagement.mapper.ApplicationMapper;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationAudDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationDto;
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import org.hibernate.envers.DefaultRevisionEntity;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.envers.repository.support.DefaultRevisionMetadata;
+import org.springframework.data.history.Revision;
+import org.springframework.data.history.RevisionMetadata;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Mapping and serialization cost of the REST layer, without any database access.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private final ApplicationMapper applicationMapper = Mappers.getMapper(ApplicationMapper.class);
+    private final ApplicationAudMapper applicationAudMapper = new ApplicationAudMapper();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Application application;
+    private Revision<Integer, Application> revision;
+    private Page<ApplicationDto> page;
+
+    @Setup
+    public void setUp() {
+        application = application(1L);
+        DefaultRevisionEntity revisionEntity = new DefaultRevisionEntity();
+        revisionEntity.setId(1);
+        revisionEntity.setTimestamp(System.currentTimeMillis());
+        revision = Revision.of(new DefaultRevisionMetadata(revisionEntity, RevisionMetadata.RevisionType.UPDATE), application);
+        List<ApplicationDto> content = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> applicationMapper.entityToDTO(application(id)))
+                .toList();
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 1_000_000);
+    }
+
+    @Benchmark
+    public ApplicationDto entityToDTO() {
+        return applicationMapper.entityToDTO(application);
+    }
+
+    @Benchmark
+    public ApplicationAudDto mapRevision() {
+        return applicationAudMapper.map(revision);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private static Application application(long id) {
+        return new Application(id, "application " + id, ApplicationContent.of("Lorem ipsum dolor sit amet, consectetur adipiscing elit."),
+                Status.PUBLISHED, id, null, null, 0L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lisowski.applicationmanagement.benchmark;
+
+import com.lisowski.applicationmanagement.ApplicationManagementApplication;
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import com.lisowski.applicationmanagement.model.CompressedTextConverter;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without the web layer against its own in-memory H2 database and seeds it with
+ * {@code rows} applications spread evenly over the workflow statuses.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final String BODY = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor "
+            + "incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco.";
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ApplicationManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Moves the first {@code count} applications back to CREATED, bypassing Hibernate, and drops the
+     * second-level cache so the service sees the change.
+     */
+    void resetToCreated(int count) {
+        bean(JdbcTemplate.class).update("UPDATE application SET status = ?, application_number = NULL, reason = NULL WHERE id <= ?",
+                Status.CREATED.name(), count);
+        bean(EntityManagerFactory.class).getCache().evictAll();
+    }
+
+    private void seed() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        Status[] statuses = {Status.CREATED, Status.VERIFIED, Status.ACCEPTED, Status.PUBLISHED, Status.REJECTED};
+        ApplicationContent content = ApplicationContent.of(BODY);
+        jdbcTemplate.update("INSERT INTO application_content (hash, body) VALUES (?, ?)",
+                content.getHash(), new CompressedTextConverter().convertToDatabaseColumn(BODY));
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= rows; id++) {
+            Status status = statuses[(int) (id % statuses.length)];
+            batch.add(new Object[]{id, "application " + id, content.getHash(), status.name(),
+                    status == Status.PUBLISHED ? id : null, status == Status.REJECTED ? "rejected" : null});
+            if (batch.size() == INSERT_BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate("INSERT INTO application (id, name, body_hash, status, application_number, reason, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE application_seq RESTART WITH " + (rows + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE application_number_seq RESTART WITH " + (rows + 1));
+    }
+}
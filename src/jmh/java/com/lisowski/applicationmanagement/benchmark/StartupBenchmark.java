@@ -0,0 +1,98 @@
+package com.lisowski.applicationmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching a fresh JVM until the first request to {@code /api/applications} is answered. Compares the
+ * executable jar with the AOT-processed build, alone and with the class-data-sharing archive from its training
+ * run. Needs the artifacts of the {@code startup} profile: {@code ./mvnw -P startup package}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final Path TARGET = Path.of("target");
+    private static final String ARTIFACT = "application-management-0.0.1-SNAPSHOT";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"jar", "aot", "aot-cds"})
+    public String build;
+
+    private List<String> command;
+    private HttpClient client;
+    private HttpRequest firstRequest;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void checkArtifacts() {
+        Path archive = TARGET.resolve("application.jsa");
+        if (!Files.exists(TARGET.resolve(ARTIFACT + "-exec.jar")) || !Files.exists(archive)) {
+            throw new IllegalStateException("Build the startup artifacts first: ./mvnw -P startup package");
+        }
+        client = HttpClient.newHttpClient();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        command = new ArrayList<>(List.of("java", "-Dserver.port=" + port));
+        switch (build) {
+            case "jar" -> command.addAll(List.of("-jar", TARGET.resolve(ARTIFACT + "-exec.jar").toString()));
+            case "aot", "aot-cds" -> {
+                if (build.equals("aot-cds")) {
+                    command.add("-XX:SharedArchiveFile=" + TARGET.resolve("application.jsa"));
+                }
+                command.addAll(List.of("-Dspring.aot.enabled=true", "-Dspring.profiles.active=startup",
+                        "-jar", TARGET.resolve(ARTIFACT + ".jar").toString()));
+            }
+            default -> throw new IllegalArgumentException(build);
+        }
+        firstRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/applications")).build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        while (System.nanoTime() < deadline) {
+            try {
+                return client.send(firstRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (ConnectException e) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("Application did not answer within " + STARTUP_TIMEOUT);
+    }
+}
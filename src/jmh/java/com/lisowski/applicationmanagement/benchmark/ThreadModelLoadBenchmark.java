@@ -0,0 +1,77 @@
+package com.lisowski.applicationmanagement.benchmark;
+
+import com.lisowski.applicationmanagement.ApplicationManagementApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load test comparing the platform-thread and the virtual-thread request handling modes. Many client
+ * threads read applications while Tomcat's platform pool is deliberately small, so the platform mode queues
+ * on it and the virtual mode is limited only by the connection pool. The {@code virtual} mode needs Java 21.
+ * Admission control is turned off, since all client threads share one address and would otherwise be timed while
+ * being rejected; any response other than 200 fails the run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModelLoadBenchmark {
+    private static final int ROWS = 10_000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ApplicationManagementApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=32",
+                        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                        "application.admission.enabled=false",
+                        "logging.level.root=WARN");
+        if (threads.equals("virtual")) {
+            builder.profiles("virtual-threads");
+        }
+        context = builder.run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO application_content (hash, body) VALUES ('body', X'00' || STRINGTOUTF8('body'))");
+        jdbcTemplate.update("INSERT INTO application (id, name, body_hash, status, version) "
+                + "SELECT X, 'application ' || X, 'body', 'CREATED', 0 FROM SYSTEM_RANGE(1, ?)", ROWS);
+        baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort() + "/api/applications/";
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getApplication() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("GET " + request.uri() + " returned " + status);
+        }
+        return status;
+    }
+}
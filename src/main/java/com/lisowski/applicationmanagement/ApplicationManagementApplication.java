@@ -2,8 +2,10 @@ package com.lisowski.applicationmanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApplicationManagementApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,189 @@
+package com.lisowski.applicationmanagement.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lisowski.applicationmanagement.service.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits API requests before they reach the controller, so an overloaded node answers 429 with
+ * {@code Retry-After} at once instead of queueing callers on the connection pool.
+ * <p>
+ * Each request first needs one of a fixed number of read, write or stream permits, so a flood of writes cannot
+ * starve plain reads, and then a token from its client's {@link TokenBucket}; a request rejected for either reason
+ * does not use up the other. Clients are identified by their {@value #API_KEY} header if it holds one of the known keys, and
+ * otherwise by their address, so made-up keys neither escape the rate limit nor fill up the tracked clients.
+ * Streams (the event stream, exports and NDJSON audit) have a lane of their own and keep its permit until the async
+ * response completes, so they are bounded without idle subscribers holding back plain reads.
+ * <p>
+ * {@code application.admission.requests} counts requests by kind and result, {@code application.admission.in.flight}
+ * is the number of permits in use per kind and {@code application.admission.clients} the number of tracked clients.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    public static final String API_KEY = "X-API-Key";
+    private static final Duration CONCURRENCY_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Set<String> STREAM_PATHS = Set.of("/api/applications/events", "/api/applications/export");
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final Set<String> apiKeys;
+    private final Cache<String, TokenBucket> buckets;
+    private final long burst;
+    private final double permitsPerSecond;
+    private final Lane reads;
+    private final Lane writes;
+    private final Lane streams;
+
+    public AdmissionControlFilter(Set<String> apiKeys, long burst, double permitsPerSecond, long maxClients,
+                                  int maxConcurrentReads, int maxConcurrentWrites, int maxConcurrentStreams,
+                                  MeterRegistry meterRegistry) {
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofSeconds((long) Math.ceil(burst / permitsPerSecond)).plusMinutes(1))
+                .build();
+        this.burst = burst;
+        this.permitsPerSecond = permitsPerSecond;
+        this.reads = new Lane("read", maxConcurrentReads, meterRegistry);
+        this.writes = new Lane("write", maxConcurrentWrites, meterRegistry);
+        this.streams = new Lane("stream", maxConcurrentStreams, meterRegistry);
+        Gauge.builder("application.admission.clients", buckets, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Lane lane = isStream(request) ? streams : isRead(request) ? reads : writes;
+        if (!lane.permits.tryAcquire()) {
+            lane.concurrencyLimited.increment();
+            reject(response, CONCURRENCY_RETRY_AFTER, "Too many concurrent " + lane.kind + " requests, retry later");
+            return;
+        }
+        Permit permit = new Permit(lane.permits);
+        try {
+            Duration wait = buckets.get(client(request), client -> new TokenBucket(burst, permitsPerSecond)).tryConsume();
+            if (!wait.isZero()) {
+                lane.rateLimited.increment();
+                reject(response, wait, "Rate limit exceeded, retry later");
+                return;
+            }
+
+            lane.admitted.increment();
+            filterChain.doFilter(request, response);
+        } finally {
+            if (lane == streams && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static boolean isStream(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return STREAM_PATHS.contains(request.getRequestURI())
+                || accept != null && accept.contains(APPLICATION_NDJSON_VALUE);
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "address:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, Duration retryAfter, String message) throws IOException {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+    }
+
+    /**
+     * A taken permit, given back once: right after the request, or for a stream when its async response completes,
+     * fails or times out.
+     */
+    private static class Permit implements AsyncListener {
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static class Lane {
+        private final String kind;
+        private final Semaphore permits;
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter concurrencyLimited;
+
+        private Lane(String kind, int maxConcurrent, MeterRegistry meterRegistry) {
+            this.kind = kind;
+            this.permits = new Semaphore(maxConcurrent);
+            this.admitted = requests(kind, "admitted", meterRegistry);
+            this.rateLimited = requests(kind, "rate-limited", meterRegistry);
+            this.concurrencyLimited = requests(kind, "concurrency-limited", meterRegistry);
+            Gauge.builder("application.admission.in.flight", permits, available -> maxConcurrent - available.availablePermits())
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        private static Counter requests(String kind, String result, MeterRegistry meterRegistry) {
+            return Counter.builder("application.admission.requests")
+                    .tag("kind", kind)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,91 +1,356 @@
 package com.lisowski.applicationmanagement.api;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.lisowski.applicationmanagement.mapper.ApplicationAudMapper;
 import com.lisowski.applicationmanagement.mapper.ApplicationMapper;
 import com.lisowski.applicationmanagement.mapper.dto.ApplicationAudDto;
 import com.lisowski.applicationmanagement.mapper.dto.ApplicationDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationStatsDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationSummaryDto;
+import com.lisowski.applicationmanagement.mapper.dto.BatchItemResultDto;
+import com.lisowski.applicationmanagement.mapper.dto.CursorPageDto;
 import com.lisowski.applicationmanagement.mapper.dto.ReasonDto;
+import com.lisowski.applicationmanagement.mapper.dto.TransitionDto;
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationSummary;
 import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.repository.RevisionFilter;
+import com.lisowski.applicationmanagement.service.ApplicationCursor;
+import com.lisowski.applicationmanagement.service.ApplicationEventDispatcher;
+import com.lisowski.applicationmanagement.service.ApplicationReadCoalescer;
+import com.lisowski.applicationmanagement.service.ApplicationSnapshot;
 import com.lisowski.applicationmanagement.service.ApplicationService;
+import com.lisowski.applicationmanagement.service.BatchItemResult;
+import com.lisowski.applicationmanagement.service.IdempotencyService;
+import com.lisowski.applicationmanagement.service.StatusChange;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.history.Revision;
+import org.springframework.data.history.RevisionMetadata;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequestMapping("/api/applications")
 @RestController
 @RequiredArgsConstructor
 public class ApplicationController {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int AUDIT_STREAM_CHUNK_SIZE = 500;
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String BODY_FIELD = "body";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String STATUS_CHANGE_EVENT = "status-change";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final long EVENT_STREAM_TIMEOUT = Duration.ofMinutes(30).toMillis();
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema EXPORT_CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("body")
+            .addColumn("status")
+            .addColumn("applicationNumber")
+            .addColumn("reason")
+            .setUseHeader(true)
+            .build();
+
     private final ApplicationService applicationService;
+    private final ApplicationEventDispatcher applicationEventDispatcher;
+    private final ApplicationReadCoalescer applicationReadCoalescer;
+    private final IdempotencyService idempotencyService;
     private final ApplicationMapper applicationMapper;
     private final ApplicationAudMapper applicationAudMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * The current state carries a strong ETag built from the entity version. A matching {@code If-None-Match}
+     * is answered with 304 before the DTO is serialized; the entity and its body come from the second-level
+     * cache, so a revalidation normally does not touch the database either. Concurrent reads of the same id share
+     * one lookup and one mapped DTO.
+     */
     @GetMapping("/{id}")
-    public ApplicationDto getApplication(@PathVariable Long id) {
-        return applicationMapper.entityToDTO(applicationService.getApplication(id));
+    public ApplicationDto getApplication(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf,
+            WebRequest webRequest) {
+        if (asOf != null) {
+            return applicationMapper.entityToDTO(applicationService.getApplicationAsOf(id, asOf));
+        }
+        ApplicationSnapshot snapshot = applicationReadCoalescer.getApplication(id);
+        if (webRequest.checkNotModified(eTag(snapshot.getVersion()))) {
+            return null;
+        }
+        return snapshot.getApplication();
+    }
+
+    @GetMapping("/as-of")
+    public Slice<ApplicationDto> getApplicationsAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf,
+            @RequestParam(required = false) Status status,
+            @PageableDefault(size = 10) Pageable pageable) {
+        checkPageSize(pageable.getPageSize());
+        return applicationService.getApplicationsAsOf(status, asOf, pageable).map(applicationMapper::entityToDTO);
     }
 
     @GetMapping
-    public Page<ApplicationDto> getApplications(
+    public Page<?> getApplications(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Set<String> fields,
             @PageableDefault(size = 10) Pageable pageable) {
-        return applicationService.getApplications(pageable, name, status).map(applicationMapper::entityToDTO);
+        if (includeBody(fields)) {
+            return applicationService.getApplications(pageable, name, status).map(applicationMapper::entityToDTO);
+        }
+        return applicationService.getApplicationSummaries(pageable, name, status).map(applicationMapper::summaryToDTO);
+    }
+
+    @GetMapping("/cursor")
+    public CursorPageDto<?> getApplicationsAfter(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        checkPageSize(size);
+        if (includeBody(fields)) {
+            Slice<Application> slice = applicationService.getApplicationsAfter(after, size, name, status);
+            return cursorPage(slice.map(applicationMapper::entityToDTO), ApplicationDto::getId);
+        }
+        Slice<ApplicationSummary> slice = applicationService.getApplicationSummariesAfter(after, size, name, status);
+        return cursorPage(slice.map(applicationMapper::summaryToDTO), ApplicationSummaryDto::getId);
+    }
+
+    @GetMapping("/search")
+    public List<ApplicationDto> searchApplications(
+            @RequestParam String query,
+            @RequestParam(required = false) Status status,
+            @RequestParam(defaultValue = "10") int size) {
+        checkPageSize(size);
+        return applicationService.searchApplications(query, status, size)
+                .stream()
+                .map(applicationMapper::entityToDTO)
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Streams every application matching the filter as newline-delimited JSON ({@code format=ndjson}, the default)
+     * or CSV ({@code format=csv}). Rows are read over a database cursor and written as they arrive, so memory use
+     * does not depend on the number of exported applications.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportApplications(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Status status,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ObjectWriter exportWriter = switch (format) {
+            case "ndjson" -> objectMapper.writerFor(ApplicationDto.class).withRootValueSeparator("\n");
+            case "csv" -> CSV_MAPPER.writerFor(ApplicationDto.class).with(EXPORT_CSV_SCHEMA);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        };
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = exportWriter.writeValues(outputStream)) {
+                applicationService.exportApplications(name, status, application -> {
+                    try {
+                        writer.write(applicationMapper.entityToDTO(application));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("csv".equals(format) ? TEXT_CSV_VALUE : APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Server-sent event stream of application status changes. A client reconnecting with {@code Last-Event-ID}
+     * first receives the events it missed, then the new ones as they are dispatched.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT);
+        Runnable unsubscribe = applicationEventDispatcher.subscribe(lastEventId, event -> emitter.send(SseEmitter.event()
+                .id(event.getDispatchSequence().toString())
+                .name(STATUS_CHANGE_EVENT)
+                .data(applicationMapper.eventToDTO(event), MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    @GetMapping("/stats")
+    public ApplicationStatsDto getStats() {
+        Map<Status, Long> counts = applicationService.getStatusCounts();
+        return ApplicationStatsDto.builder()
+                .counts(counts)
+                .total(counts.entrySet().stream()
+                        .filter(entry -> entry.getKey() != Status.DELETED)
+                        .mapToLong(Map.Entry::getValue)
+                        .sum())
+                .build();
+    }
+
+    /**
+     * Create and the transitions accept an optional {@code Idempotency-Key}. A retry with the same key gets the
+     * response of the first request and does not reach {@link ApplicationService} again.
+     */
     @PostMapping
-    public ApplicationDto createApplication(@Valid @RequestBody ApplicationDto applicationDto) {
+    public ApplicationDto createApplication(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody ApplicationDto applicationDto) {
         applicationDto.setId(null);
         applicationDto.setStatus(Status.CREATED);
 
-        return applicationMapper.entityToDTO(applicationService
-                .saveApplication(applicationMapper.dtoToEntity(applicationDto), null));
+        return idempotencyService.execute(idempotencyKey, "POST /api/applications", applicationDto, ApplicationDto.class,
+                () -> applicationMapper.entityToDTO(applicationService
+                        .saveApplication(applicationMapper.dtoToEntity(applicationDto), null)));
+    }
+
+    @PostMapping("/batch")
+    public List<BatchItemResultDto> createApplications(@RequestBody List<ApplicationDto> applicationDtos) {
+        checkBatchSize(applicationDtos);
+        List<BatchItemResultDto> results = new ArrayList<>(applicationDtos.size());
+        List<Application> applications = new ArrayList<>();
+        for (int i = 0; i < applicationDtos.size(); i++) {
+            ApplicationDto applicationDto = applicationDtos.get(i);
+            Set<ConstraintViolation<ApplicationDto>> violations = validator.validate(applicationDto);
+            if (violations.isEmpty()) {
+                applicationDto.setId(null);
+                applicationDto.setStatus(Status.CREATED);
+                applications.add(applicationMapper.dtoToEntity(applicationDto));
+                results.add(null);
+            } else {
+                results.add(invalidItem(i, violations));
+            }
+        }
+
+        Iterator<Application> saved = applicationService.saveApplications(applications).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, toResultDto(i, BatchItemResult.success(saved.next()), applicationMapper::entityToDTO));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Applies the status changes in one transaction. The results leave out the body, so a batch of transitions
+     * never has to load the bodies of the applications it changes.
+     */
+    @PostMapping("/transitions")
+    public List<BatchItemResultDto> updateApplicationStatuses(@RequestBody List<TransitionDto> transitionDtos) {
+        checkBatchSize(transitionDtos);
+        List<BatchItemResultDto> results = new ArrayList<>(transitionDtos.size());
+        List<StatusChange> changes = new ArrayList<>();
+        for (int i = 0; i < transitionDtos.size(); i++) {
+            TransitionDto transitionDto = transitionDtos.get(i);
+            Set<ConstraintViolation<TransitionDto>> violations = validator.validate(transitionDto);
+            if (violations.isEmpty()) {
+                changes.add(new StatusChange(transitionDto.getId(), transitionDto.getTargetStatus(), transitionDto.getReason()));
+                results.add(null);
+            } else {
+                results.add(invalidItem(i, violations));
+            }
+        }
+
+        Iterator<BatchItemResult> applied = applicationService.updateApplicationStatuses(changes).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, toResultDto(i, applied.next(), applicationMapper::entityToDTOWithoutBody));
+            }
+        }
+        return results;
     }
 
+    /**
+     * Accepts an optional {@code If-Match} with the ETag from a previous read; the update is rejected with 412
+     * when the application has changed since.
+     */
     @PutMapping("/{id}")
-    public ApplicationDto updateApplication(@PathVariable Long id, @Valid @RequestBody ApplicationDto applicationDto) {
-        return applicationMapper.entityToDTO(
-                applicationService.updateApplication(
-                        applicationMapper.dtoToEntity(applicationDto), id));
+    public ResponseEntity<ApplicationDto> updateApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ApplicationDto applicationDto) {
+        Application application = applicationService.updateApplication(
+                applicationMapper.dtoToEntity(applicationDto), id, expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(eTag(application))
+                .body(applicationMapper.entityToDTO(application));
     }
 
     @PatchMapping("/{id}/verify")
-    public ApplicationDto verifyApplication(@PathVariable Long id) {
-        return applicationMapper
-                .entityToDTO(applicationService
-                        .updateApplicationStatus(Status.VERIFIED, id));
+    public ApplicationDto verifyApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return transition(idempotencyKey, id, Status.VERIFIED, null);
     }
 
     @PatchMapping("/{id}/accept")
-    public ApplicationDto acceptApplication(@PathVariable Long id) {
-        return applicationMapper
-                .entityToDTO(applicationService
-                        .updateApplicationStatus(Status.ACCEPTED, id));
+    public ApplicationDto acceptApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return transition(idempotencyKey, id, Status.ACCEPTED, null);
     }
 
     @PatchMapping("/{id}/publish")
-    public ApplicationDto publishApplication(@PathVariable Long id) {
-        return applicationMapper
-                .entityToDTO(applicationService
-                        .updateApplicationStatus(Status.PUBLISHED, id));
+    public ApplicationDto publishApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return transition(idempotencyKey, id, Status.PUBLISHED, null);
     }
 
     @PatchMapping("/{id}/reject")
-    public ApplicationDto rejectApplication(@PathVariable Long id, @Valid @RequestBody ReasonDto reasonDto) {
-        return applicationMapper
-                .entityToDTO(applicationService
-                        .updateApplicationStatus(Status.REJECTED, id, reasonDto.getReason()));
+    public ApplicationDto rejectApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody ReasonDto reasonDto) {
+        return transition(idempotencyKey, id, Status.REJECTED, reasonDto);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteApplication(@PathVariable Long id, @Valid @RequestBody ReasonDto reasonDto) {
-        applicationService.deleteApplication(id, reasonDto.getReason());
+    public void deleteApplication(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody ReasonDto reasonDto) {
+        idempotencyService.execute(idempotencyKey, "DELETE /api/applications/" + id, reasonDto, Void.class, () -> {
+            applicationService.deleteApplication(id, reasonDto.getReason());
+            return null;
+        });
     }
 
     @GetMapping("/{id}/audit")
@@ -96,6 +361,131 @@ public class ApplicationController {
                 .map(applicationAudMapper::map)
                 .collect(Collectors.toList());
     }
-}
 
+    @GetMapping("/{id}/audit/page")
+    public Slice<ApplicationAudDto> getAuditPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) RevisionMetadata.RevisionType type,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return applicationService.getAudit(id, revisionFilter(from, to, type), pageable)
+                .map(applicationAudMapper::map);
+    }
+
+    /**
+     * Streams the audit history as newline-delimited JSON. Revisions are read in fixed-size chunks, each in its own
+     * read-only transaction, so memory use does not depend on the length of the history.
+     */
+    @GetMapping(value = "/{id}/audit", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAudit(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) RevisionMetadata.RevisionType type) {
+        RevisionFilter filter = revisionFilter(from, to, type);
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+                RevisionFilter chunkFilter = filter;
+                Slice<Revision<Integer, Application>> chunk;
+                do {
+                    chunk = applicationService.getAudit(id, chunkFilter, PageRequest.ofSize(AUDIT_STREAM_CHUNK_SIZE));
+                    for (Revision<Integer, Application> revision : chunk) {
+                        writer.write(applicationAudMapper.map(revision));
+                        chunkFilter = chunkFilter.toBuilder().afterRevision(revision.getRequiredRevisionNumber()).build();
+                    }
+                    writer.flush();
+                } while (chunk.hasNext());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    private boolean includeBody(Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return false;
+        }
+        for (String field : fields) {
+            if (!BODY_FIELD.equals(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + field);
+            }
+        }
+        return true;
+    }
+
+    private <T> CursorPageDto<T> cursorPage(Slice<T> slice, Function<T, Long> idExtractor) {
+        List<T> content = slice.getContent();
+        return CursorPageDto.<T>builder()
+                .content(content)
+                .size(content.size())
+                .next(slice.hasNext() ? ApplicationCursor.encode(idExtractor.apply(content.get(content.size() - 1))) : null)
+                .build();
+    }
+
+    private RevisionFilter revisionFilter(Instant from, Instant to, RevisionMetadata.RevisionType type) {
+        return RevisionFilter.builder()
+                .from(from)
+                .to(to)
+                .revisionType(type)
+                .build();
+    }
 
+    private ApplicationDto transition(String idempotencyKey, Long id, Status status, ReasonDto reasonDto) {
+        String reason = reasonDto == null ? null : reasonDto.getReason();
+        return idempotencyService.execute(idempotencyKey, "PATCH /api/applications/" + id + " " + status, reasonDto, ApplicationDto.class,
+                () -> applicationMapper.entityToDTO(applicationService.updateApplicationStatus(status, id, reason)));
+    }
+
+    private static String eTag(Application application) {
+        return eTag(application.getVersion());
+    }
+
+    private static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.equals("*")) {
+            return null;
+        }
+        if (ifMatch.length() > 2 && ifMatch.startsWith("\"") && ifMatch.endsWith("\"")) {
+            try {
+                return Long.valueOf(ifMatch.substring(1, ifMatch.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // not an ETag issued by this API, so it cannot match
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match the current version");
+    }
+
+    private void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch cannot contain more than " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    private BatchItemResultDto invalidItem(int index, Set<? extends ConstraintViolation<?>> violations) {
+        return BatchItemResultDto.builder()
+                .index(index)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .message(violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")))
+                .build();
+    }
+
+    private static BatchItemResultDto toResultDto(int index, BatchItemResult result, Function<Application, ApplicationDto> mapper) {
+        return BatchItemResultDto.builder()
+                .index(index)
+                .status(result.getStatus().value())
+                .message(result.getMessage())
+                .application(result.getApplication() == null ? null : mapper.apply(result.getApplication()))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.lisowski.applicationmanagement.config;
+
+import com.lisowski.applicationmanagement.api.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Set;
+
+/**
+ * Puts the {@link AdmissionControlFilter} in front of the API; {@code application.admission.enabled=false} turns
+ * it off. The write limit should stay below the connection pool size, so some connections are always left for reads.
+ * <p>
+ * The filter runs right after the observation filter, so rejected requests still show up in
+ * {@code http.server.requests}, and before the ETag filter, so they are never buffered.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${application.admission.api-keys:}") Set<String> apiKeys,
+            @Value("${application.admission.client.burst:200}") long burst,
+            @Value("${application.admission.client.permits-per-second:100}") double permitsPerSecond,
+            @Value("${application.admission.client.max-tracked:100000}") long maxClients,
+            @Value("${application.admission.read.max-concurrent:64}") int maxConcurrentReads,
+            @Value("${application.admission.write.max-concurrent:8}") int maxConcurrentWrites,
+            @Value("${application.admission.stream.max-concurrent:16}") int maxConcurrentStreams) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(apiKeys, burst, permitsPerSecond, maxClients,
+                maxConcurrentReads, maxConcurrentWrites, maxConcurrentStreams, meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/applications", "/api/applications/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lisowski.applicationmanagement.config;
+
+import com.lisowski.applicationmanagement.repository.AuditJournalListener;
+import com.lisowski.applicationmanagement.repository.AuditJournalWriter;
+import org.hibernate.envers.boot.internal.EnversIntegrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves audit writing off the request path. Envers keeps mapping and reading the audit tables, but its listeners
+ * are replaced by {@link AuditJournalListener}, which only journals the changes in the committing transaction;
+ * {@link AuditJournalWriter} writes the revisions in batches afterwards. Enabled by the {@code async-audit} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.audit.async.enabled", havingValue = "true")
+public class AsyncAuditConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer auditJournalHibernateProperties(ObjectProvider<AuditJournalWriter> auditJournalWriter) {
+        AuditJournalListener listener = new AuditJournalListener(auditJournalWriter);
+        return properties -> {
+            properties.put(EnversIntegrator.AUTO_REGISTER, false);
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(listener));
+        };
+    }
+
+    @Bean
+    public AuditJournalWriter auditJournalWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.audit.async.max-backlog:10000}") long maxBacklog,
+            @Value("${application.audit.async.batch-size:100}") int batchSize,
+            @Value("${application.audit.async.max-read-wait:PT2S}") Duration maxReadWait) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new AuditJournalWriter(jdbcTemplate, transactionTemplate, maxBacklog, batchSize, maxReadWait);
+    }
+}
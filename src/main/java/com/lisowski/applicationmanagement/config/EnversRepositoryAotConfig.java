@@ -0,0 +1,35 @@
+package com.lisowski.applicationmanagement.config;
+
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.envers.repository.support.EnversRevisionRepositoryFactoryBean;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Keeps the Envers repositories injectable when the context is AOT-processed. Their factory bean has more type
+ * parameters than Spring Data resolves, so the generated bean definitions lose the repository type; it is restored
+ * from the repository interface handed to the factory bean. Definitions that already carry the type are left alone.
+ */
+@Configuration
+public class EnversRepositoryAotConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor enversRepositoryTypes() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanNamesForType(EnversRevisionRepositoryFactoryBean.class, true, false)) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(BeanFactoryUtils.transformedBeanName(name));
+                ConstructorArgumentValues.ValueHolder repositoryInterface =
+                        definition.getConstructorArgumentValues().getIndexedArgumentValue(0, String.class);
+                if (definition.getAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE) == null && repositoryInterface != null) {
+                    definition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, ClassUtils.resolveClassName(
+                            (String) repositoryInterface.getValue(), beanFactory.getBeanClassLoader()));
+                }
+            }
+        };
+    }
+}
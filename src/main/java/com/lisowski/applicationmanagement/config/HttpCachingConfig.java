@@ -0,0 +1,27 @@
+package com.lisowski.applicationmanagement.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Adds content-hash ETags to the list endpoints, so an unchanged page is revalidated with 304 and not sent again.
+ * Single applications get version-based ETags in the controller instead. The filter buffers the whole response,
+ * so it is mapped to the paged endpoints only and never to the streamed ones (export, events, NDJSON audit).
+ * <p>
+ * The list ETags are weak: Tomcat does not compress responses carrying a strong ETag, and list pages are the
+ * payloads worth compressing.
+ */
+@Configuration
+public class HttpCachingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/applications", "/api/applications/cursor", "/api/applications/as-of");
+        return registration;
+    }
+}
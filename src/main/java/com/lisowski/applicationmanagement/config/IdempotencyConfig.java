@@ -0,0 +1,37 @@
+package com.lisowski.applicationmanagement.config;
+
+import com.lisowski.applicationmanagement.repository.IdempotencyStore;
+import com.lisowski.applicationmanagement.repository.InMemoryIdempotencyStore;
+import com.lisowski.applicationmanagement.repository.JdbcIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Chooses where idempotency keys are kept: in memory on each node (the default), or in the database with
+ * {@code application.idempotency.store=jdbc} when several nodes serve the API.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "application.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(
+            @Value("${application.idempotency.ttl:PT24H}") Duration timeToLive,
+            @Value("${application.idempotency.max-keys:100000}") long maxKeys) {
+        return new InMemoryIdempotencyStore(timeToLive, maxKeys);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${application.idempotency.ttl:PT24H}") Duration timeToLive,
+            @Value("${application.idempotency.pending-timeout:PT1M}") Duration pendingTimeout) {
+        return new JdbcIdempotencyStore(jdbcTemplate, timeToLive, pendingTimeout);
+    }
+}
@@ -0,0 +1,73 @@
+package com.lisowski.applicationmanagement.config;
+
+import com.lisowski.applicationmanagement.repository.ReadWriteRoutingDataSource;
+import com.lisowski.applicationmanagement.repository.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Adds a replica connection pool next to the primary one ({@code spring.datasource}) and routes read-only
+ * transactions to it, see {@link ReadWriteRoutingDataSource}. Enabled by the {@code replica} profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("application.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("application.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${application.datasource.replica.max-lag:PT5S}") Duration maxLag,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryDataSource), new JdbcTemplate(replicaDataSource), maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    }
+}
@@ -0,0 +1,64 @@
+package com.lisowski.applicationmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Training run for the class-data-sharing archive built by the {@code startup} Maven profile. With
+ * {@code application.startup.training-run=true} the application sends a few requests to itself once it is ready, so
+ * the classes serving them end up in the archive as well, and then exits. The property is read at runtime rather
+ * than through a condition, because AOT processing fixes conditions at build time.
+ */
+@Component
+public class StartupTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    private static final String TRAINING_APPLICATION = "{\"name\": \"training run\", \"body\": \"Loads the request path classes\"}";
+
+    private final boolean trainingRun;
+
+    public StartupTrainingRun(@Value("${application.startup.training-run:false}") boolean trainingRun) {
+        this.trainingRun = trainingRun;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!trainingRun) {
+            return;
+        }
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        URI applications = URI.create("http://localhost:"
+                + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/applications");
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            send(client, HttpRequest.newBuilder(applications)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString(TRAINING_APPLICATION))
+                    .build());
+            send(client, HttpRequest.newBuilder(applications).build());
+            send(client, HttpRequest.newBuilder(applications.resolve("/api/applications/1")).build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private static void send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
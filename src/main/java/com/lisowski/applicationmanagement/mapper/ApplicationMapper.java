@@ -1,12 +1,28 @@
 package com.lisowski.applicationmanagement.mapper;
 
 import com.lisowski.applicationmanagement.mapper.dto.ApplicationDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationEventDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationSummaryDto;
 import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationEvent;
+import com.lisowski.applicationmanagement.model.ApplicationSummary;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface ApplicationMapper {
     ApplicationDto entityToDTO(Application application);
 
+    @Mapping(target = "body", ignore = true)
+    ApplicationDto entityToDTOWithoutBody(Application application);
+
+    ApplicationSummaryDto summaryToDTO(ApplicationSummary applicationSummary);
+
+    @Mapping(target = "id", source = "dispatchSequence")
+    ApplicationEventDto eventToDTO(ApplicationEvent applicationEvent);
+
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    @Mapping(target = "content", ignore = true)
     Application dtoToEntity(ApplicationDto applicationDto);
 }
@@ -0,0 +1,18 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+@Data
+public class ApplicationEventDto {
+    private Long id;
+    private Long applicationId;
+    private Status fromStatus;
+    private Status toStatus;
+    private String reason;
+    private Instant createdAt;
+}
@@ -0,0 +1,18 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationStatsDto {
+    private Map<Status, Long> counts;
+    private long total;
+}
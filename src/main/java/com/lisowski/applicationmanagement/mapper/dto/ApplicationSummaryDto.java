@@ -0,0 +1,14 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Data
+public class ApplicationSummaryDto {
+    private Long id;
+    private String name;
+    private Status status;
+    private Long applicationNumber;
+}
@@ -0,0 +1,13 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class BatchItemResultDto {
+    private int index;
+    private int status;
+    private String message;
+    private ApplicationDto application;
+}
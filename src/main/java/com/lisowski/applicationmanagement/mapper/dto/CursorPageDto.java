@@ -0,0 +1,14 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+public class CursorPageDto<T> {
+    private List<T> content;
+    private int size;
+    private String next;
+}
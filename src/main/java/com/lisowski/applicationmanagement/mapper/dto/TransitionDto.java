@@ -0,0 +1,16 @@
+package com.lisowski.applicationmanagement.mapper.dto;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Data
+public class TransitionDto {
+    @NotNull(message = "Missing application id")
+    private Long id;
+    @NotNull(message = "Missing target status")
+    private Status targetStatus;
+    private String reason;
+}
@@ -4,29 +4,91 @@ import com.lisowski.applicationmanagement.model.enums.Status;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
+
+import java.time.Instant;
 
 @Entity
-@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_application_number", columnList = "applicationNumber", unique = true),
+        @Index(name = "idx_application_status_id", columnList = "status, id")
+})
 @NoArgsConstructor
 @Data
 @Audited
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Application {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "application_seq")
+    @SequenceGenerator(name = "application_seq", allocationSize = 50)
     private Long id;
     @NotBlank
     private String name;
-    @NotBlank
-    private String body;
+    /**
+     * Hash of the body, kept in step with {@link #content}. The column is written and audited through this plain
+     * value rather than the association, because Envers initializes a lazy association to audit it and would load
+     * the body on every audited update, status changes included.
+     */
+    @Column(name = "body_hash")
+    @Setter(AccessLevel.NONE)
+    private String bodyHash;
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "body_hash", insertable = false, updatable = false)
+    @NotAudited
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ApplicationContent content;
     @NotNull
     @Enumerated(EnumType.STRING)
     private Status status;
     private Long applicationNumber;
     private String reason;
+    private Instant deletedAt;
+    @Version
+    private Long version;
+
+    public Application(Long id, String name, ApplicationContent content, Status status, Long applicationNumber,
+                       String reason, Instant deletedAt, Long version) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.applicationNumber = applicationNumber;
+        this.reason = reason;
+        this.deletedAt = deletedAt;
+        this.version = version;
+        setContent(content);
+    }
+
+    public void setContent(ApplicationContent content) {
+        this.content = content;
+        this.bodyHash = content == null ? null : content.getHash();
+    }
+
+    /**
+     * Text of the body. Reading it loads the {@link ApplicationContent} unless it is already cached.
+     */
+    public String getBody() {
+        return content == null ? null : content.getBody();
+    }
 
+    /**
+     * Points the application at the content for the given text. The content still has to be stored, see
+     * {@code ApplicationService}.
+     */
+    public void setBody(String body) {
+        setContent(body == null ? null : ApplicationContent.of(body));
+    }
 }
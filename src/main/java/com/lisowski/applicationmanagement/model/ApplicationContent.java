@@ -0,0 +1,45 @@
+package com.lisowski.applicationmanagement.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Body of an application, stored once per distinct text and keyed by its SHA-256 hash. Applications and their audit
+ * rows only hold the hash, so identical bodies across applications and revisions share one row, and loading or
+ * updating an application does not read the body. Rows are never modified, which lets them be cached read-only.
+ */
+@Entity
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ApplicationContent {
+
+    @Id
+    private String hash;
+    @NotBlank
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    private String body;
+
+    public static ApplicationContent of(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return new ApplicationContent(HexFormat.of().formatHex(digest), body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.lisowski.applicationmanagement.model;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry describing a status change of an application. It is written in the same transaction as the
+ * change itself and stays undispatched until it has been pushed to the event stream subscribers. The
+ * {@code dispatchSequence} is assigned on dispatch and is the event's position in the stream: unlike the id it
+ * follows commit order, so a subscriber resuming after it cannot miss an event that committed late.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_application_event_dispatched_id", columnList = "dispatchedAt, id"),
+        @Index(name = "idx_application_event_dispatch_sequence", columnList = "dispatchSequence", unique = true)})
+@NoArgsConstructor
+@Data
+public class ApplicationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "application_event_seq")
+    @SequenceGenerator(name = "application_event_seq", allocationSize = 50)
+    private Long id;
+    @NotNull
+    private Long applicationId;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status fromStatus;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Status toStatus;
+    private String reason;
+    @NotNull
+    private Instant createdAt;
+    private Instant dispatchedAt;
+    private Long dispatchSequence;
+
+    public ApplicationEvent(Long applicationId, Status fromStatus, Status toStatus, String reason) {
+        this.applicationId = applicationId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.reason = reason;
+        this.createdAt = Instant.now();
+    }
+}
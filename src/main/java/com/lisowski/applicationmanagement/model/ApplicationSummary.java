@@ -0,0 +1,16 @@
+package com.lisowski.applicationmanagement.model;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+
+/**
+ * Read-only view of an {@link Application} without its body and reason, used by listing queries.
+ */
+public interface ApplicationSummary {
+    Long getId();
+
+    String getName();
+
+    Status getStatus();
+
+    Long getApplicationNumber();
+}
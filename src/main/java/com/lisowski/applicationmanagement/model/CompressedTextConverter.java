@@ -0,0 +1,73 @@
+package com.lisowski.applicationmanagement.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores text as UTF-8, gzip-compressed once it is long enough for compression to pay off. The first byte tells
+ * the two forms apart, so the threshold can change without rewriting stored values.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+    static final int COMPRESSION_THRESHOLD = 1024;
+    private static final byte PLAIN = 0;
+    private static final byte GZIP = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= COMPRESSION_THRESHOLD) {
+            byte[] compressed = gzip(bytes);
+            if (compressed.length < bytes.length) {
+                return withMarker(GZIP, compressed);
+            }
+        }
+        return withMarker(PLAIN, bytes);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = Arrays.copyOfRange(value, 1, value.length);
+        return new String(value[0] == GZIP ? gunzip(bytes) : bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] withMarker(byte marker, byte[] bytes) {
+        byte[] value = new byte[bytes.length + 1];
+        value[0] = marker;
+        System.arraycopy(bytes, 0, value, 1, bytes.length);
+        return value;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.lisowski.applicationmanagement.model;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+
+/**
+ * Number of applications in a single {@link Status}, as returned by the grouping count query.
+ */
+public interface StatusCount {
+    Status getStatus();
+
+    long getCount();
+}
@@ -6,5 +6,14 @@ public enum Status {
     ACCEPTED,
     PUBLISHED,
     REJECTED,
-    DELETED
+    DELETED;
+
+    public boolean canTransitionTo(Status target) {
+        return switch (this) {
+            case CREATED -> target == VERIFIED;
+            case VERIFIED -> target == ACCEPTED || target == REJECTED;
+            case ACCEPTED -> target == PUBLISHED || target == REJECTED;
+            default -> false;
+        };
+    }
 }
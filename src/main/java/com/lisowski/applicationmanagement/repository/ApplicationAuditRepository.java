@@ -0,0 +1,18 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.history.Revision;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ApplicationAuditRepository {
+    Slice<Revision<Integer, Application>> findRevisions(Long id, RevisionFilter filter, Pageable pageable);
+
+    Optional<Application> findAsOf(Long id, Instant asOf);
+
+    Slice<Application> findAllAsOf(Status status, Instant asOf, Pageable pageable);
+}
@@ -0,0 +1,137 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.envers.AuditReader;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.DefaultRevisionEntity;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.envers.exception.RevisionDoesNotExistException;
+import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.envers.query.AuditQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.envers.repository.support.DefaultRevisionMetadata;
+import org.springframework.data.history.Revision;
+import org.springframework.data.history.RevisionMetadata;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Filtered audit history read through the Envers query API. Only the requested page (plus one row to
+ * detect a following page) is loaded and no count query is run.
+ * <p>
+ * Point-in-time reads first resolve the instant to the last revision at or before it, a single seek on the
+ * {@code revtstmp} index, and then read the state at that revision through the {@code (id, rev)} index.
+ */
+public class ApplicationAuditRepositoryImpl implements ApplicationAuditRepository {
+    private static final String TIMESTAMP = "timestamp";
+    private static final String STATUS = "status";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public Slice<Revision<Integer, Application>> findRevisions(Long id, RevisionFilter filter, Pageable pageable) {
+        AuditQuery query = AuditReaderFactory.get(entityManager)
+                .createQuery()
+                .forRevisionsOfEntity(Application.class, false, true)
+                .add(AuditEntity.id().eq(id))
+                .addOrder(AuditEntity.revisionNumber().asc());
+        if (filter.getFrom() != null) {
+            query.add(AuditEntity.revisionProperty(TIMESTAMP).ge(filter.getFrom().toEpochMilli()));
+        }
+        if (filter.getTo() != null) {
+            query.add(AuditEntity.revisionProperty(TIMESTAMP).lt(filter.getTo().toEpochMilli()));
+        }
+        if (filter.getRevisionType() != null) {
+            query.add(AuditEntity.revisionType().eq(toEnversType(filter.getRevisionType())));
+        }
+        if (filter.getAfterRevision() != null) {
+            query.add(AuditEntity.revisionNumber().gt(filter.getAfterRevision()));
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1);
+        }
+
+        List<Revision<Integer, Application>> revisions = ((List<Object[]>) query.getResultList())
+                .stream()
+                .map(this::toRevision)
+                .toList();
+        boolean hasNext = pageable.isPaged() && revisions.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? revisions.subList(0, pageable.getPageSize()) : revisions, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Application> findAsOf(Long id, Instant asOf) {
+        AuditReader auditReader = AuditReaderFactory.get(entityManager);
+        return revisionAt(auditReader, asOf)
+                .map(revision -> auditReader.find(Application.class, id, revision))
+                .filter(application -> application.getStatus() != Status.DELETED);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public Slice<Application> findAllAsOf(Status status, Instant asOf, Pageable pageable) {
+        AuditReader auditReader = AuditReaderFactory.get(entityManager);
+        Optional<Number> revision = revisionAt(auditReader, asOf);
+        if (revision.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        AuditQuery query = auditReader.createQuery()
+                .forEntitiesAtRevision(Application.class, revision.get())
+                .add(AuditEntity.property(STATUS).ne(Status.DELETED))
+                .addOrder(AuditEntity.id().asc());
+        if (status != null) {
+            query.add(AuditEntity.property(STATUS).eq(status));
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1);
+        }
+
+        List<Application> applications = query.getResultList();
+        boolean hasNext = pageable.isPaged() && applications.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? applications.subList(0, pageable.getPageSize()) : applications, pageable, hasNext);
+    }
+
+    private Optional<Number> revisionAt(AuditReader auditReader, Instant asOf) {
+        try {
+            return Optional.of(auditReader.getRevisionNumberForDate(Date.from(asOf)));
+        } catch (RevisionDoesNotExistException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Revision<Integer, Application> toRevision(Object[] row) {
+        DefaultRevisionMetadata metadata = new DefaultRevisionMetadata((DefaultRevisionEntity) row[1], toRevisionType((RevisionType) row[2]));
+        return Revision.of(metadata, (Application) row[0]);
+    }
+
+    private static RevisionType toEnversType(RevisionMetadata.RevisionType revisionType) {
+        return switch (revisionType) {
+            case INSERT -> RevisionType.ADD;
+            case UPDATE -> RevisionType.MOD;
+            case DELETE -> RevisionType.DEL;
+            case UNKNOWN -> throw new IllegalArgumentException("Cannot filter by unknown revision type");
+        };
+    }
+
+    private static RevisionMetadata.RevisionType toRevisionType(RevisionType revisionType) {
+        return switch (revisionType) {
+            case ADD -> RevisionMetadata.RevisionType.INSERT;
+            case MOD -> RevisionMetadata.RevisionType.UPDATE;
+            case DEL -> RevisionMetadata.RevisionType.DELETE;
+        };
+    }
+}
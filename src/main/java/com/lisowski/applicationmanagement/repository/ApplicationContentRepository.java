@@ -0,0 +1,9 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ApplicationContentRepository extends JpaRepository<ApplicationContent, String> {
+}
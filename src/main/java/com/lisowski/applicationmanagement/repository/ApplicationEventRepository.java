@@ -0,0 +1,29 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.ApplicationEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ApplicationEventRepository extends JpaRepository<ApplicationEvent, Long> {
+
+    @Query("SELECT e.id FROM ApplicationEvent e WHERE e.dispatchedAt IS NULL ORDER BY e.id")
+    List<Long> findUndispatchedIds(Pageable pageable);
+
+    List<ApplicationEvent> findByIdInOrderByDispatchSequence(Collection<Long> ids);
+
+    Slice<ApplicationEvent> findByDispatchSequenceGreaterThanOrderByDispatchSequence(long afterSequence, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ApplicationEvent e WHERE e.dispatchedAt < :before")
+    int deleteDispatchedBefore(@Param("before") Instant before);
+}
@@ -1,22 +1,151 @@
 package com.lisowski.applicationmanagement.repository;
 
 import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationSummary;
+import com.lisowski.applicationmanagement.model.StatusCount;
 import com.lisowski.applicationmanagement.model.enums.Status;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.history.RevisionRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Status filters are kept as plain {@code a.status = :status} predicates in separate queries, because an
+ * {@code (:status is null or ...)} condition is planned once for all values and can never use the
+ * {@code (status, id)} index. The default methods pick the query matching the given filters.
+ * <p>
+ * Deleted applications stay in the table as {@link Status#DELETED} tombstones until they are purged. Every listing
+ * excludes them with an {@code a.status <> DELETED} check, including the status-filtered ones, so asking for
+ * {@code DELETED} explicitly finds nothing. The check only filters out the few tombstones not purged yet and leaves
+ * the plans on the primary key and the {@code (status, id)} index unchanged.
+ */
 @Repository
-public interface ApplicationRepository extends JpaRepository<Application, Long>, RevisionRepository<Application, Long, Integer> {
+public interface ApplicationRepository extends JpaRepository<Application, Long>, RevisionRepository<Application, Long, Integer>,
+        ApplicationAuditRepository {
+    String SUMMARY_SELECT = "SELECT a.id AS id, a.name AS name, a.status AS status, a.applicationNumber AS applicationNumber ";
+    String DELETED = "com.lisowski.applicationmanagement.model.enums.Status.DELETED ";
+    String NOT_DELETED = "a.status <> " + DELETED;
+    String STREAM_FETCH_SIZE = "500";
+
     Optional<Application> findByApplicationNumber(Long number);
 
+    @EntityGraph(attributePaths = "content")
+    List<Application> findAllWithContentByIdIn(Collection<Long> ids);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS count FROM Application a GROUP BY a.status")
+    List<StatusCount> countByStatus();
+
+    @Query("SELECT a.id FROM Application a WHERE a.status = " + DELETED +
+            "and a.deletedAt < :before ORDER BY a.id")
+    List<Long> findDeletedIdsBefore(@Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Removes the rows with a bulk statement, bypassing Envers, so purging leaves the audit history untouched.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Application a WHERE a.id IN :ids")
+    int deleteAllByIdInBulk(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT a FROM Application a WHERE (:name is null or a.name LIKE %:name%)" +
-            "and (:status is null or a.status = :status)")
+            "and " + NOT_DELETED + "and (:status is null or a.status = :status)")
+    @EntityGraph(attributePaths = "content")
     Page<Application> findByNameOrStatus(@Param("name") String name, @Param("status") Status status, Pageable pageable);
+
+    default Page<ApplicationSummary> findSummariesByNameOrStatus(String name, Status status, Pageable pageable) {
+        return status == null
+                ? findSummariesByName(name, pageable)
+                : findSummariesByNameAndStatus(name, status, pageable);
+    }
+
+    default Slice<Application> findByNameOrStatusAfter(String name, Status status, Long afterId, Pageable pageable) {
+        long lowerBound = afterId == null ? 0L : afterId;
+        return status == null
+                ? findByNameAfter(name, lowerBound, pageable)
+                : findByNameAndStatusAfter(name, status, lowerBound, pageable);
+    }
+
+    default Slice<ApplicationSummary> findSummariesByNameOrStatusAfter(String name, Status status, Long afterId, Pageable pageable) {
+        long lowerBound = afterId == null ? 0L : afterId;
+        return status == null
+                ? findSummariesByNameAfter(name, lowerBound, pageable)
+                : findSummariesByNameAndStatusAfter(name, status, lowerBound, pageable);
+    }
+
+    /**
+     * Streams matching applications in id order over a forward-only cursor. The entities are read-only and bypass
+     * the second-level cache; the caller must consume the stream inside a transaction and close it.
+     */
+    default Stream<Application> streamByNameOrStatus(String name, Status status) {
+        return status == null
+                ? streamByName(name)
+                : streamByNameAndStatus(name, status);
+    }
+
+    @Query("SELECT a FROM Application a WHERE " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @EntityGraph(attributePaths = "content")
+    Stream<Application> streamByName(@Param("name") String name);
+
+    @Query("SELECT a FROM Application a WHERE a.status = :status and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @EntityGraph(attributePaths = "content")
+    Stream<Application> streamByNameAndStatus(@Param("name") String name, @Param("status") Status status);
+
+    @Query(SUMMARY_SELECT + "FROM Application a WHERE " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%)")
+    Page<ApplicationSummary> findSummariesByName(@Param("name") String name, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Application a WHERE a.status = :status and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%)")
+    Page<ApplicationSummary> findSummariesByNameAndStatus(@Param("name") String name, @Param("status") Status status, Pageable pageable);
+
+    @Query("SELECT a FROM Application a WHERE a.id > :afterId and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    @EntityGraph(attributePaths = "content")
+    Slice<Application> findByNameAfter(@Param("name") String name, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT a FROM Application a WHERE a.status = :status and a.id > :afterId and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    @EntityGraph(attributePaths = "content")
+    Slice<Application> findByNameAndStatusAfter(@Param("name") String name, @Param("status") Status status,
+                                                @Param("afterId") long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Application a WHERE a.id > :afterId and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    Slice<ApplicationSummary> findSummariesByNameAfter(@Param("name") String name, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Application a WHERE a.status = :status and a.id > :afterId and " + NOT_DELETED +
+            "and (:name is null or a.name LIKE %:name%) ORDER BY a.id")
+    Slice<ApplicationSummary> findSummariesByNameAndStatusAfter(@Param("name") String name, @Param("status") Status status,
+                                                                @Param("afterId") long afterId, Pageable pageable);
 }
@@ -0,0 +1,177 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.Application;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces the Envers listeners when audit rows are written asynchronously. Changes of an {@link Application} are
+ * collected per transaction, merged the way Envers merges them, and written to {@code audit_journal} just before the
+ * transaction commits, so a committed change always has its journal entry. {@link AuditJournalWriter} turns the
+ * journal into revisions afterwards.
+ */
+public class AuditJournalListener implements Integrator, PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    static final int ADD = 0;
+    static final int MOD = 1;
+    static final int DEL = 2;
+    private static final Set<String> AUDITED_PROPERTIES = Set.of("name", "bodyHash", "status", "applicationNumber", "reason", "deletedAt");
+    private static final String INSERT_JOURNAL = "INSERT INTO audit_journal " +
+            "(tx_id, revtstmp, revtype, application_id, name, body_hash, status, application_number, reason, deleted_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ObjectProvider<AuditJournalWriter> auditJournalWriter;
+    private final Map<EventSource, Map<Long, JournalEntry>> pendingEntries = new ConcurrentHashMap<>();
+
+    public AuditJournalListener(ObjectProvider<AuditJournalWriter> auditJournalWriter) {
+        this.auditJournalWriter = auditJournalWriter;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Application application) {
+            record(event.getSession(), JournalEntry.of(ADD, application));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Application application && auditedPropertyChanged(event)) {
+            record(event.getSession(), JournalEntry.of(MOD, application));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Application application) {
+            record(event.getSession(), new JournalEntry(DEL, application.getId(), null));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private boolean auditedPropertyChanged(PostUpdateEvent event) {
+        if (event.getDirtyProperties() == null) {
+            return true;
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int index : event.getDirtyProperties()) {
+            if (AUDITED_PROPERTIES.contains(propertyNames[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(EventSource session, JournalEntry entry) {
+        pendingEntries.computeIfAbsent(session, this::startTransaction)
+                .merge(entry.applicationId(), entry, JournalEntry::merge);
+    }
+
+    private Map<Long, JournalEntry> startTransaction(EventSource session) {
+        Map<Long, JournalEntry> entries = new LinkedHashMap<>();
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completingSession ->
+                writeJournal(completingSession, entries));
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completedSession) -> {
+            pendingEntries.remove(session);
+            if (success && !entries.isEmpty()) {
+                auditJournalWriter.getObject().journaled(entries.size());
+            }
+        });
+        return entries;
+    }
+
+    private void writeJournal(SessionImplementor session, Map<Long, JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String txId = UUID.randomUUID().toString();
+        long timestamp = System.currentTimeMillis();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_JOURNAL)) {
+                for (JournalEntry entry : entries.values()) {
+                    Application state = entry.state();
+                    statement.setString(1, txId);
+                    statement.setLong(2, timestamp);
+                    statement.setInt(3, entry.revisionType());
+                    statement.setLong(4, entry.applicationId());
+                    statement.setString(5, state == null ? null : state.getName());
+                    statement.setString(6, state == null ? null : state.getBodyHash());
+                    statement.setString(7, state == null || state.getStatus() == null ? null : state.getStatus().name());
+                    statement.setObject(8, state == null ? null : state.getApplicationNumber(), Types.BIGINT);
+                    statement.setString(9, state == null ? null : state.getReason());
+                    statement.setObject(10, state == null || state.getDeletedAt() == null
+                            ? null : state.getDeletedAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Audited state of one application within a transaction. The state is copied when the change is recorded,
+     * because the entity may still change before the transaction completes.
+     */
+    private record JournalEntry(int revisionType, Long applicationId, Application state) {
+
+        static JournalEntry of(int revisionType, Application application) {
+            Application state = new Application();
+            state.setId(application.getId());
+            state.setName(application.getName());
+            state.setContent(application.getContent());
+            state.setStatus(application.getStatus());
+            state.setApplicationNumber(application.getApplicationNumber());
+            state.setReason(application.getReason());
+            state.setDeletedAt(application.getDeletedAt());
+            return new JournalEntry(revisionType, application.getId(), state);
+        }
+
+        /**
+         * Same rules as Envers: an insert followed by changes stays an insert with the latest state, an insert
+         * followed by a delete leaves nothing to audit, and a delete followed by an insert becomes a modification.
+         */
+        static JournalEntry merge(JournalEntry existing, JournalEntry next) {
+            if (existing.revisionType == ADD) {
+                return next.revisionType == DEL ? null : new JournalEntry(ADD, next.applicationId, next.state);
+            }
+            if (existing.revisionType == DEL && next.revisionType == ADD) {
+                return new JournalEntry(MOD, next.applicationId, next.state);
+            }
+            return next;
+        }
+    }
+}
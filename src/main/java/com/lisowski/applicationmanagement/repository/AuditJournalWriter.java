@@ -0,0 +1,207 @@
+package com.lisowski.applicationmanagement.repository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Turns the entries written by {@link AuditJournalListener} into Envers revisions on a background thread. Each
+ * journaled transaction becomes one {@code revinfo} row and its entries are copied to {@code application_aud} with
+ * batched statements, so the audit history reads exactly as if Envers had written it.
+ * <p>
+ * The journal is the bounded queue: once more than {@code maxBacklog} entries are waiting, committing threads wait
+ * for the background thread to catch up, which slows writers down to the rate the audit tables can absorb. Entries
+ * left over from a previous run are drained at startup.
+ * <p>
+ * Several instances may drain the same journal. Each transaction's entries are locked before they are copied, so
+ * a drain that finds them locked waits for the other drain to commit, then finds them deleted and skips them
+ * instead of writing a second revision.
+ * <p>
+ * Readers of the audit history wait for the background thread too, but only while entries are waiting and for at
+ * most {@code maxReadWait}; they never drain themselves, so audit reads do not queue on each other.
+ */
+@Slf4j
+public class AuditJournalWriter {
+    private static final String SELECT_TRANSACTIONS = "SELECT tx_id, MIN(revtstmp) AS revtstmp FROM audit_journal " +
+            "GROUP BY tx_id ORDER BY MIN(id) FETCH FIRST ? ROWS ONLY";
+    private static final String CLAIM_TRANSACTION = "SELECT id FROM audit_journal WHERE tx_id = ? FOR UPDATE";
+    private static final String INSERT_REVISION = "INSERT INTO revinfo (revtstmp) VALUES (?)";
+    private static final String COPY_TO_AUDIT = "INSERT INTO application_aud " +
+            "(rev, revtype, id, name, body_hash, status, application_number, reason, deleted_at) " +
+            "SELECT ?, revtype, application_id, name, body_hash, status, application_number, reason, deleted_at " +
+            "FROM audit_journal WHERE tx_id = ? ORDER BY id";
+    private static final String DELETE_TRANSACTION = "DELETE FROM audit_journal WHERE tx_id = ?";
+    private static final Duration BACKPRESSURE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxBacklog;
+    private final int batchSize;
+    private final Duration maxReadWait;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "audit-journal"));
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition progress = progressLock.newCondition();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong backlog = new AtomicLong();
+
+    public AuditJournalWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, long maxBacklog,
+                              int batchSize, Duration maxReadWait) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBacklog = maxBacklog;
+        this.batchSize = batchSize;
+        this.maxReadWait = maxReadWait;
+    }
+
+    void journaled(int entries) {
+        scheduleDrain();
+        if (backlog.addAndGet(entries) > maxBacklog
+                && !awaitBacklogAtMost(maxBacklog, BACKPRESSURE_TIMEOUT)) {
+            log.warn("Audit journal backlog of {} entries is not shrinking", backlog.get());
+        }
+    }
+
+    /**
+     * Waits until the entries journaled so far are in the audit tables, so readers see their own changes. Returns
+     * at once when nothing is waiting, and after {@code maxReadWait} at the latest, reading whatever is written by
+     * then. Call it outside of a transaction: the background thread needs a connection to catch up.
+     */
+    public void awaitCaughtUp() {
+        if (backlog.get() == 0) {
+            return;
+        }
+        scheduleDrain();
+        awaitBacklogAtMost(0, maxReadWait);
+    }
+
+    /**
+     * Writes every journaled transaction to the audit tables.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.audit.async.drain-interval:PT5S}")
+    public void drain() {
+        drainLock.lock();
+        try {
+            Batch batch;
+            do {
+                long counted = backlog.get();
+                batch = transactionTemplate.execute(status -> drainBatch());
+                // Entries counted before the batch started had committed, so an empty journal means all of them are
+                // written; this also clears entries copied before their transaction got to count them.
+                long written = batch.transactions() == 0 ? counted : batch.entries();
+                backlog.updateAndGet(waiting -> Math.max(0, waiting - written));
+                signalProgress();
+            } while (batch.transactions() == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Could not write journaled audit entries, they will be retried", e);
+        } finally {
+            signalProgress();
+            drainLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    private boolean awaitBacklogAtMost(long limit, Duration timeout) {
+        progressLock.lock();
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (backlog.get() > limit) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private void signalProgress() {
+        progressLock.lock();
+        try {
+            progress.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private Batch drainBatch() {
+        List<Object[]> transactions = jdbcTemplate.query(SELECT_TRANSACTIONS,
+                (resultSet, rowNum) -> new Object[]{resultSet.getString("tx_id"), resultSet.getLong("revtstmp")}, batchSize);
+        if (transactions.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        List<Object[]> copies = new ArrayList<>(transactions.size());
+        for (Object[] transaction : transactions) {
+            if (claim((String) transaction[0])) {
+                copies.add(new Object[]{insertRevision((Long) transaction[1]), transaction[0]});
+            }
+        }
+        if (copies.isEmpty()) {
+            return new Batch(transactions.size(), 0);
+        }
+        int copied = Arrays.stream(jdbcTemplate.batchUpdate(COPY_TO_AUDIT, copies)).sum();
+        jdbcTemplate.batchUpdate(DELETE_TRANSACTION, copies.stream().map(copy -> new Object[]{copy[1]}).toList());
+        return new Batch(transactions.size(), copied);
+    }
+
+    /**
+     * Locks the entries of the journaled transaction until the current one ends. Returns {@code false} when another
+     * drain has written and deleted them in the meantime.
+     */
+    private boolean claim(String transactionId) {
+        return !jdbcTemplate.queryForList(CLAIM_TRANSACTION, Long.class, transactionId).isEmpty();
+    }
+
+    private int insertRevision(long timestamp) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_REVISION, new String[]{"rev"});
+            statement.setLong(1, timestamp);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().intValue();
+    }
+
+    private record Batch(int transactions, int entries) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.lisowski.applicationmanagement.repository;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Request stored under an idempotency key. The response is {@code null} while the first request is still running.
+ */
+@Value
+public class IdempotencyRecord {
+    String fingerprint;
+    String response;
+    Instant createdAt;
+
+    public static IdempotencyRecord pending(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, null, Instant.now());
+    }
+
+    public IdempotencyRecord completed(String response) {
+        return new IdempotencyRecord(fingerprint, response, createdAt);
+    }
+
+    public boolean isPending() {
+        return response == null;
+    }
+}
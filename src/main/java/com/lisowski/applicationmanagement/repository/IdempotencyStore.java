@@ -0,0 +1,23 @@
+package com.lisowski.applicationmanagement.repository;
+
+import java.util.Optional;
+
+/**
+ * Keeps the responses of requests sent with an {@code Idempotency-Key}, so a retried request can be answered
+ * without running it again. Keys expire after a configured time to live.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims the key for a new request. Returns empty if the caller now owns the key, or the record already stored
+     * under it.
+     */
+    Optional<IdempotencyRecord> claim(String key, String fingerprint);
+
+    void complete(String key, String response);
+
+    /**
+     * Forgets a claimed key whose request failed, so it can be retried.
+     */
+    void release(String key);
+}
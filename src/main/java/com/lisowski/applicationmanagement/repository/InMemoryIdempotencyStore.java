@@ -0,0 +1,37 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency keys in a bounded cache on this node. Keys expire after the time to live, and the least
+ * recently used ones are evicted once {@code maxKeys} is reached.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(Duration timeToLive, long maxKeys) {
+        this.records = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        return Optional.ofNullable(records.asMap().putIfAbsent(key, IdempotencyRecord.pending(fingerprint)));
+    }
+
+    @Override
+    public void complete(String key, String response) {
+        records.asMap().computeIfPresent(key, (k, record) -> record.completed(response));
+    }
+
+    @Override
+    public void release(String key) {
+        records.asMap().computeIfPresent(key, (k, record) -> record.isPending() ? null : record);
+    }
+}
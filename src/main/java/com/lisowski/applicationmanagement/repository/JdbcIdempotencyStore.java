@@ -0,0 +1,86 @@
+package com.lisowski.applicationmanagement.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency keys in the {@code idempotency_key} table, so a retry is recognized by whichever node receives
+ * it. The primary key decides which request claims a key. A claim that was never completed, e.g. because its node
+ * stopped, can be taken over once it is older than {@code pendingTimeout}. Expired keys are deleted periodically.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private static final String INSERT = "INSERT INTO idempotency_key (idempotency_key, fingerprint, created_at) VALUES (?, ?, ?)";
+    private static final String SELECT = "SELECT fingerprint, response, created_at FROM idempotency_key WHERE idempotency_key = ?";
+    private static final String TAKE_OVER = "UPDATE idempotency_key SET fingerprint = ?, response = NULL, created_at = ? " +
+            "WHERE idempotency_key = ? AND created_at = ?";
+    private static final String COMPLETE = "UPDATE idempotency_key SET response = ? WHERE idempotency_key = ?";
+    private static final String RELEASE = "DELETE FROM idempotency_key WHERE idempotency_key = ? AND response IS NULL";
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_key WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration timeToLive;
+    private final Duration pendingTimeout;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration timeToLive, Duration pendingTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeToLive = timeToLive;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        Instant now = Instant.now();
+        try {
+            jdbcTemplate.update(INSERT, key, fingerprint, toTimestamp(now));
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            Optional<IdempotencyRecord> existing = find(key);
+            if (existing.isEmpty()) {
+                return claim(key, fingerprint);
+            }
+            IdempotencyRecord record = existing.get();
+            Duration age = Duration.between(record.getCreatedAt(), now);
+            boolean abandoned = record.isPending() ? age.compareTo(pendingTimeout) > 0 : age.compareTo(timeToLive) > 0;
+            if (abandoned && jdbcTemplate.update(TAKE_OVER, fingerprint, toTimestamp(now), key, toTimestamp(record.getCreatedAt())) == 1) {
+                return Optional.empty();
+            }
+            return abandoned ? find(key) : existing;
+        }
+    }
+
+    @Override
+    public void complete(String key, String response) {
+        jdbcTemplate.update(COMPLETE, response, key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE, key);
+    }
+
+    @Scheduled(fixedDelayString = "${application.idempotency.cleanup-interval:PT1H}",
+            initialDelayString = "${application.idempotency.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        jdbcTemplate.update(DELETE_EXPIRED, toTimestamp(Instant.now().minus(timeToLive)));
+    }
+
+    private Optional<IdempotencyRecord> find(String key) {
+        return jdbcTemplate.query(SELECT, (rs, rowNum) -> new IdempotencyRecord(
+                        rs.getString("fingerprint"),
+                        rs.getString("response"),
+                        rs.getObject("created_at", OffsetDateTime.class).toInstant()), key)
+                .stream()
+                .findFirst();
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,35 @@
+package com.lisowski.applicationmanagement.repository;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica while {@link ReplicaLagMonitor} considers it usable,
+ * and everything else to the primary. The decision is made when the connection is obtained, so this has to sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the connection is
+ * fetched before the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMonitor.isReplicaUsable()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
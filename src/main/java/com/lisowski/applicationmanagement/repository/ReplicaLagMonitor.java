@@ -0,0 +1,73 @@
+package com.lisowski.applicationmanagement.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Measures how far the replica is behind the primary. A heartbeat row is updated on the primary and read back from
+ * the replica; the difference to the current time is the replication lag. The replica is only used while the lag is
+ * within {@code maxLag} and the replica answers at all, so reads fall back to the primary otherwise.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private static final String BEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String SELECT_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private volatile Duration lag;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        Gauge.builder("application.datasource.replica.lag", this, monitor -> monitor.lag == null ? Double.NaN : monitor.lag.toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.replica.heartbeat-interval:PT1S}")
+    public void heartbeat() {
+        beat();
+        check();
+    }
+
+    public void beat() {
+        try {
+            primary.update(BEAT, OffsetDateTime.now(ZoneOffset.UTC));
+        } catch (DataAccessException e) {
+            log.warn("Could not write replication heartbeat", e);
+        }
+    }
+
+    public void check() {
+        boolean usable;
+        try {
+            OffsetDateTime beatAt = replica.queryForObject(SELECT_BEAT, OffsetDateTime.class);
+            lag = Duration.between(beatAt.toInstant(), Instant.now());
+            usable = lag.compareTo(maxLag) <= 0;
+        } catch (DataAccessException e) {
+            lag = null;
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.info(usable ? "Routing read-only transactions to the replica, lag {}" : "Routing read-only transactions to the primary, replica lag {}", lag);
+        }
+        replicaUsable = usable;
+    }
+}
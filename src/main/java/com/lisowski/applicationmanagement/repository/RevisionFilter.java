@@ -0,0 +1,19 @@
+package com.lisowski.applicationmanagement.repository;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.history.RevisionMetadata;
+
+import java.time.Instant;
+
+/**
+ * Optional restrictions applied to an audit history query. Null fields are not applied.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RevisionFilter {
+    Instant from;
+    Instant to;
+    RevisionMetadata.RevisionType revisionType;
+    Integer afterRevision;
+}
@@ -0,0 +1,37 @@
+package com.lisowski.applicationmanagement.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque cursor used by the keyset listing. It wraps the id of the last returned application,
+ * so the client never depends on the key layout.
+ */
+public final class ApplicationCursor {
+
+    private ApplicationCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(lastId).array());
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new IllegalArgumentException();
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.ApplicationEvent;
+import com.lisowski.applicationmanagement.repository.ApplicationEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes outbox entries written by {@link ApplicationService} to the subscribers of the event stream.
+ * Undispatched events are polled, numbered in dispatch order and marked as dispatched in a short transaction, so
+ * each event is delivered at least once and the stream position follows commit order. Delivery happens after the
+ * commit on a dedicated thread, so a slow subscriber never holds a transaction or the shared scheduler thread.
+ * <p>
+ * A subscriber resuming after a known position first gets the already dispatched events after it replayed on the
+ * same delivery thread; events it already received that way are skipped when their chunk is delivered live.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventDispatcher {
+    private static final int DISPATCH_CHUNK_SIZE = 500;
+    private static final String MARK_DISPATCHED = "UPDATE application_event SET dispatched_at = ?, " +
+            "dispatch_sequence = NEXT VALUE FOR application_event_dispatch_seq WHERE id = ? AND dispatched_at IS NULL";
+
+    private final ApplicationEventRepository applicationEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveryExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "application-events"));
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    @Value("${application.events.retention:P7D}")
+    private Duration retention;
+
+    /**
+     * Registers a listener for dispatched events. When {@code lastEventId} (a dispatch sequence) is given,
+     * dispatched events after it are replayed before any new ones. The returned runnable cancels the subscription.
+     */
+    public Runnable subscribe(Long lastEventId, Listener listener) {
+        Subscription subscription = new Subscription(listener, lastEventId);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    @Scheduled(fixedDelayString = "${application.events.dispatch-interval:PT1S}")
+    public void dispatch() {
+        dispatchLock.lock();
+        try {
+            List<ApplicationEvent> events;
+            do {
+                events = transactionTemplate.execute(status -> markNextChunkDispatched());
+                deliver(events);
+            } while (events.size() == DISPATCH_CHUNK_SIZE);
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.events.cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpiredEvents() {
+        int deleted = applicationEventRepository.deleteDispatchedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} dispatched application events older than {}", deleted, retention);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        deliveryExecutor.shutdown();
+        deliveryExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Marks the events in id order, one batched statement per event, so they are numbered in that order. The update
+     * goes through JDBC because a native Hibernate update would evict the whole second-level cache on every tick.
+     */
+    private List<ApplicationEvent> markNextChunkDispatched() {
+        List<Long> ids = applicationEventRepository.findUndispatchedIds(PageRequest.ofSize(DISPATCH_CHUNK_SIZE));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime dispatchedAt = Instant.now().atOffset(ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(MARK_DISPATCHED, ids, ids.size(), (statement, id) -> {
+            statement.setObject(1, dispatchedAt);
+            statement.setLong(2, id);
+        });
+        return applicationEventRepository.findByIdInOrderByDispatchSequence(ids);
+    }
+
+    private void deliver(List<ApplicationEvent> events) {
+        if (events.isEmpty() && subscriptions.stream().noneMatch(subscription -> subscription.replayAfter != null)) {
+            return;
+        }
+        deliveryExecutor.execute(() -> {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.replayAfter != null && !replay(subscription)) {
+                    continue;
+                }
+                send(subscription, events);
+            }
+        });
+    }
+
+    /**
+     * Reads from the primary in a read-write transaction, a lagging replica could otherwise leave a gap between
+     * the replayed events and the live ones.
+     */
+    private boolean replay(Subscription subscription) {
+        Slice<ApplicationEvent> chunk;
+        do {
+            long after = subscription.replayAfter;
+            chunk = transactionTemplate.execute(status -> applicationEventRepository
+                    .findByDispatchSequenceGreaterThanOrderByDispatchSequence(after, PageRequest.ofSize(DISPATCH_CHUNK_SIZE)));
+            if (!send(subscription, chunk.getContent())) {
+                return false;
+            }
+            if (chunk.hasContent()) {
+                subscription.replayAfter = chunk.getContent().get(chunk.getNumberOfElements() - 1).getDispatchSequence();
+            }
+        } while (chunk.hasNext());
+        subscription.replayAfter = null;
+        return true;
+    }
+
+    private boolean send(Subscription subscription, List<ApplicationEvent> events) {
+        try {
+            for (ApplicationEvent event : events) {
+                if (subscription.lastSent != null && event.getDispatchSequence() <= subscription.lastSent) {
+                    continue;
+                }
+                subscription.listener.onEvent(event);
+                subscription.lastSent = event.getDispatchSequence();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Dropping application event subscriber", e);
+            subscriptions.remove(subscription);
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void onEvent(ApplicationEvent event) throws IOException;
+    }
+
+    private static class Subscription {
+        private final Listener listener;
+        private volatile Long replayAfter;
+        private Long lastSent;
+
+        private Subscription(Listener listener, Long replayAfter) {
+            this.listener = listener;
+            this.replayAfter = replayAfter;
+            this.lastSent = replayAfter;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.lisowski.applicationmanagement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique application numbers in blocks, the way Hibernate's pooled-lo optimizer does.
+ * Every value taken from the {@code application_number_seq} sequence is the first number of a block reserved
+ * for this node. The sequence steps by {@link #BLOCK_SIZE}, so the database is hit only once per block and blocks
+ * of different nodes never overlap. The block size is a constant rather than read next to every block, which could
+ * pair a block with an increment changed in between; {@link #verifyBlockSize()} checks it against the sequence once
+ * at startup, so changing it takes both a migration and a new constant.
+ * A {@link ReentrantLock} guards the block instead of {@code synchronized}, so a virtual thread fetching
+ * the next block does not pin its carrier thread during the JDBC call.
+ */
+@Component
+public class ApplicationNumberGenerator {
+    private static final long BLOCK_SIZE = 100;
+    private static final String NEXT_BLOCK_QUERY = "SELECT NEXT VALUE FOR application_number_seq";
+    private static final String BLOCK_SIZE_QUERY =
+            "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'APPLICATION_NUMBER_SEQ'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer blockFetchTimer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+
+    public ApplicationNumberGenerator(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockFetchTimer = Timer.builder("application.number.block.fetch")
+                .description("Time spent reserving a new block of application numbers")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyBlockSize() {
+        Long increment = jdbcTemplate.queryForObject(BLOCK_SIZE_QUERY, Long.class);
+        if (increment == null || increment != BLOCK_SIZE) {
+            throw new IllegalStateException("application_number_seq increments by " + increment
+                    + ", but application numbers are reserved in blocks of " + BLOCK_SIZE);
+        }
+    }
+
+    public Long nextNumber() {
+        lock.lock();
+        try {
+            if (next == limit) {
+                next = blockFetchTimer.record(() -> jdbcTemplate.queryForObject(NEXT_BLOCK_QUERY, Long.class));
+                limit = next + BLOCK_SIZE;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
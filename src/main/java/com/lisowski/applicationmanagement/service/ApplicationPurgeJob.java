@@ -0,0 +1,52 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.repository.ApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Hard-deletes {@link Status#DELETED} tombstones once they are older than the retention period. Rows are removed
+ * in small batches, each in its own transaction, so the job never holds locks on a large part of the table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApplicationPurgeJob {
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationStatusCounters applicationStatusCounters;
+    @Value("${application.purge.retention:P30D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${application.purge.interval:PT1H}")
+    public void purgeExpiredTombstones() {
+        int purged = purgeDeletedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} deleted applications older than {}", purged, retention);
+        }
+    }
+
+    public int purgeDeletedBefore(Instant before) {
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = applicationRepository.findDeletedIdsBefore(before, PageRequest.ofSize(PURGE_BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                int deleted = applicationRepository.deleteAllByIdInBulk(ids);
+                applicationStatusCounters.removed(Status.DELETED, deleted);
+                purged += deleted;
+            }
+        } while (ids.size() == PURGE_BATCH_SIZE);
+        return purged;
+    }
+}
@@ -0,0 +1,43 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.mapper.ApplicationMapper;
+import com.lisowski.applicationmanagement.model.Application;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves concurrent reads of the same application from a single {@link ApplicationService#getApplication(Long)}
+ * call, so a burst of requests for a few ids costs one lookup per id. The loading caller maps the entity to a
+ * {@link ApplicationSnapshot} within its own read-only transaction, body included, and only that detached value
+ * is shared; the entity never leaves the loading caller's persistence context.
+ */
+@Component
+public class ApplicationReadCoalescer {
+    private final ApplicationService applicationService;
+    private final ApplicationMapper applicationMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<Long, ApplicationSnapshot> applicationLoads;
+
+    public ApplicationReadCoalescer(
+            ApplicationService applicationService,
+            ApplicationMapper applicationMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.read-coalescing.max-waiters:1000}") int maxWaiters) {
+        this.applicationService = applicationService;
+        this.applicationMapper = applicationMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.applicationLoads = new SingleFlight<>("application", maxWaiters, meterRegistry);
+    }
+
+    public ApplicationSnapshot getApplication(Long id) {
+        return applicationLoads.execute(id, () -> readOnlyTransaction.execute(status -> {
+            Application application = applicationService.getApplication(id);
+            return new ApplicationSnapshot(applicationMapper.entityToDTO(application), application.getVersion());
+        }));
+    }
+}
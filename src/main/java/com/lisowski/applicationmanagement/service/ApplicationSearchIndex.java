@@ -0,0 +1,181 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.repository.ApplicationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process Lucene index over application name and body. Writes are applied only after the surrounding
+ * transaction commits, so the index never shows changes that were rolled back. The status is kept as a doc value,
+ * which can be updated in place, so a status change does not need the body to re-index the application.
+ */
+@Slf4j
+@Component
+public class ApplicationSearchIndex {
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String BODY = "body";
+    private static final String STATUS = "status";
+    private static final int REINDEX_CHUNK_SIZE = 1000;
+
+    private final ApplicationRepository applicationRepository;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public ApplicationSearchIndex(ApplicationRepository applicationRepository) throws IOException {
+        this.applicationRepository = applicationRepository;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindex() throws IOException {
+        writer.deleteAll();
+        Long afterId = null;
+        Slice<Application> chunk;
+        do {
+            chunk = applicationRepository.findByNameOrStatusAfter(null, null, afterId, PageRequest.ofSize(REINDEX_CHUNK_SIZE));
+            for (Application application : chunk) {
+                writer.updateDocument(new Term(ID, application.getId().toString()), toDocument(application));
+                afterId = application.getId();
+            }
+        } while (chunk.hasNext());
+        searcherManager.maybeRefresh();
+        log.info("Search index rebuilt with {} applications", writer.getDocStats().numDocs);
+    }
+
+    public void index(Application application) {
+        Document document = toDocument(application);
+        Term id = new Term(ID, application.getId().toString());
+        AfterCommit.run(() -> apply(() -> writer.updateDocument(id, document)));
+    }
+
+    /**
+     * Re-indexes an application whose status changed but whose name and body did not.
+     */
+    public void indexStatus(Application application) {
+        Term id = new Term(ID, application.getId().toString());
+        long status = application.getStatus().ordinal();
+        AfterCommit.run(() -> apply(() -> writer.updateNumericDocValue(id, STATUS, status)));
+    }
+
+    public void remove(Long applicationId) {
+        Term id = new Term(ID, applicationId.toString());
+        AfterCommit.run(() -> apply(() -> writer.deleteDocuments(id)));
+    }
+
+    /**
+     * Returns ids of matching applications, best match first. Every word of the query has to appear
+     * in the name or the body, either as a whole term or as a term prefix.
+     */
+    public List<Long> search(String text, Status status, int limit) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query cannot be empty");
+        }
+        for (String term : terms) {
+            query.add(termQuery(term), BooleanClause.Occur.MUST);
+        }
+        if (status != null) {
+            query.add(NumericDocValuesField.newSlowExactQuery(STATUS, status.ordinal()), BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                List<Long> ids = new ArrayList<>();
+                for (ScoreDoc scoreDoc : searcher.search(query.build(), limit).scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    private Query termQuery(String term) {
+        return new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(NAME, term)), 4), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(BODY, term)), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(NAME, term)), 2), BooleanClause.Occur.SHOULD)
+                .add(new PrefixQuery(new Term(BODY, term)), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Document toDocument(Application application) {
+        Document document = new Document();
+        document.add(new StringField(ID, application.getId().toString(), Field.Store.YES));
+        document.add(new NumericDocValuesField(STATUS, application.getStatus().ordinal()));
+        document.add(new TextField(NAME, application.getName(), Field.Store.NO));
+        document.add(new TextField(BODY, application.getBody(), Field.Store.NO));
+        return document;
+    }
+
+    private void apply(IndexOperation operation) {
+        try {
+            operation.run();
+        } catch (IOException e) {
+            log.error("Could not update search index", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws IOException;
+    }
+}
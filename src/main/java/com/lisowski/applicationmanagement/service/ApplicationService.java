@@ -1,33 +1,143 @@
 package com.lisowski.applicationmanagement.service;
 
 import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import com.lisowski.applicationmanagement.model.CompressedTextConverter;
+import com.lisowski.applicationmanagement.model.ApplicationEvent;
+import com.lisowski.applicationmanagement.model.ApplicationSummary;
 import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.repository.ApplicationContentRepository;
+import com.lisowski.applicationmanagement.repository.ApplicationEventRepository;
 import com.lisowski.applicationmanagement.repository.ApplicationRepository;
+import com.lisowski.applicationmanagement.repository.AuditJournalWriter;
+import com.lisowski.applicationmanagement.repository.RevisionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.history.Revision;
+import org.springframework.data.history.RevisionMetadata;
 import org.springframework.data.history.Revisions;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Random;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ApplicationService {
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    private static final String MERGE_CONTENT = "MERGE INTO application_content KEY (hash) VALUES (?, ?)";
+    private static final CompressedTextConverter CONTENT_CONVERTER = new CompressedTextConverter();
+
     private final ApplicationRepository applicationRepository;
+    private final ApplicationContentRepository applicationContentRepository;
+    private final ApplicationEventRepository applicationEventRepository;
+    private final ApplicationNumberGenerator applicationNumberGenerator;
+    private final ApplicationSearchIndex applicationSearchIndex;
+    private final ApplicationStatusCounters applicationStatusCounters;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<AuditJournalWriter> auditJournalWriter;
 
+    @Transactional(readOnly = true)
     public Application getApplication(Long id) {
         return applicationRepository.findById(id)
+                .filter(application -> application.getStatus() != Status.DELETED)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Application with id: " + id + " not found"));
     }
 
+    @Transactional(readOnly = true)
     public Page<Application> getApplications(Pageable pageable, String name, Status status) {
         return applicationRepository.findByNameOrStatus(name, status, pageable);
     }
 
+    /**
+     * Same filter as {@link #getApplications(Pageable, String, Status)}, but selects only the summary columns,
+     * so neither the body nor the reason is read and no entities are put in the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public Page<ApplicationSummary> getApplicationSummaries(Pageable pageable, String name, Status status) {
+        return applicationRepository.findSummariesByNameOrStatus(name, status, pageable);
+    }
+
+    /**
+     * Keyset variant of {@link #getApplications(Pageable, String, Status)}. Rows are read in id order starting
+     * right after the cursor, so every page costs the same index seek and no count query is issued.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Application> getApplicationsAfter(String cursor, int size, String name, Status status) {
+        return applicationRepository.findByNameOrStatusAfter(name, status, ApplicationCursor.decode(cursor), PageRequest.ofSize(size));
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ApplicationSummary> getApplicationSummariesAfter(String cursor, int size, String name, Status status) {
+        return applicationRepository.findSummariesByNameOrStatusAfter(name, status, ApplicationCursor.decode(cursor), PageRequest.ofSize(size));
+    }
+
+    /**
+     * Passes every application matching the filter to the consumer, in id order, within one read-only transaction.
+     * The persistence context is cleared at regular intervals, so memory use does not grow with the number of rows.
+     */
+    @Transactional(readOnly = true)
+    public void exportApplications(String name, Status status, Consumer<Application> consumer) {
+        try (Stream<Application> applications = applicationRepository.streamByNameOrStatus(name, status)) {
+            Iterator<Application> iterator = applications.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                consumer.accept(iterator.next());
+                if (count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    public Map<Status, Long> getStatusCounts() {
+        return applicationStatusCounters.snapshot();
+    }
+
+    /**
+     * Full-text search over name and body, best match first. Matching ids come from {@link ApplicationSearchIndex}
+     * and the applications are then loaded by primary key.
+     */
+    @Transactional(readOnly = true)
+    public List<Application> searchApplications(String query, Status status, int limit) {
+        List<Long> ids = applicationSearchIndex.search(query, status, limit);
+        Map<Long, Application> applications = applicationRepository.findAllWithContentByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Application::getId, Function.identity()));
+        return ids.stream()
+                .map(applications::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
 
+    @Transactional
     public Application saveApplication(Application application, Long applicationId) {
         if (applicationId != null) {
             application.setId(applicationId);
@@ -38,88 +148,250 @@ public class ApplicationService {
         if (application.getStatus() != Status.DELETED && application.getStatus() != Status.REJECTED) {
             application.setReason(null);
         }
-        return applicationRepository.save(application);
+        application.setContent(storeContent(application.getContent()));
+        boolean isNew = application.getId() == null;
+        Application savedApplication = applicationRepository.save(application);
+        applicationSearchIndex.index(savedApplication);
+        if (isNew) {
+            applicationStatusCounters.created(savedApplication.getStatus());
+        }
+        return savedApplication;
+    }
+
+    /**
+     * Saves all applications in one transaction, so Hibernate can send the inserts and their
+     * audit rows as JDBC batches under a single revision.
+     */
+    @Transactional
+    public List<Application> saveApplications(List<Application> applications) {
+        return applications.stream()
+                .map(application -> saveApplication(application, null))
+                .toList();
     }
 
-    public Application updateApplication(Application application, Long applicationId) {
+    /**
+     * Updates the name and body. When {@code expectedVersion} is given, the update is rejected with 412 unless it
+     * matches the current version of the application.
+     */
+    @Transactional
+    public Application updateApplication(Application application, Long applicationId, Long expectedVersion) {
         Application foundApplication = getApplication(applicationId);
 
+        if (expectedVersion != null && !expectedVersion.equals(foundApplication.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Application with id: " + applicationId + " was modified since it was read");
+        }
         if (foundApplication.getStatus().equals(Status.CREATED) || foundApplication.getStatus().equals(Status.VERIFIED)) {
-            application.setStatus(foundApplication.getStatus());
+            foundApplication.setName(application.getName());
+            if (!application.getBodyHash().equals(foundApplication.getBodyHash())) {
+                foundApplication.setContent(storeContent(application.getContent()));
+            }
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You cannot edit this application");
         }
-        return saveApplication(application, applicationId);
+        flushChanges("Application with id: " + applicationId + " was modified concurrently");
+        applicationSearchIndex.index(foundApplication);
+        return foundApplication;
     }
 
     public Application updateApplicationStatus(Status status, Long applicationId) {
         return updateApplicationStatus(status, applicationId, null);
     }
 
+    /**
+     * Moves the application to the given status if {@link Status#canTransitionTo(Status)} allows it.
+     * The change is flushed as a single versioned update, so a transition racing with another
+     * modification of the same application fails with 409 instead of overwriting it.
+     */
+    @Transactional
     public Application updateApplicationStatus(Status status, Long applicationId, String reason) {
-        Application application = getApplication(applicationId);
-        switch (application.getStatus()) {
-            case CREATED -> {
-                if (status == Status.VERIFIED) {
-                    application.setStatus(status);
-                } else {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You can only verify or delete this application");
-                }
-            }
-            case VERIFIED -> {
-                if (status == Status.REJECTED || status == Status.ACCEPTED) {
-                    application.setStatus(status);
-                    if (status == Status.REJECTED) {
-                        application.setReason(reason);
-                    }
-                } else {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You can only accept or reject this application");
-                }
-            }
-            case ACCEPTED -> {
-                if (status == Status.PUBLISHED || status == Status.REJECTED) {
-                    application.setStatus(status);
-                    if (status == Status.PUBLISHED) {
-                        generateUniteApplicationNumber(application);
-                    }
-                    if (status == Status.REJECTED) {
-                        application.setReason(reason);
+        return observeTransition("single").observe(() -> {
+            Application application = applyTransition(getApplication(applicationId), status, reason);
+            flushChanges("Application with id: " + applicationId + " was modified concurrently");
+            applicationSearchIndex.indexStatus(application);
+            return application;
+        });
+    }
+
+    /**
+     * Applies all status changes in one transaction. The applications are loaded with a single query, without their
+     * bodies, and the resulting updates are flushed together, so Hibernate can batch them. Invalid changes are reported per item
+     * and do not affect the others; a concurrent modification of any application fails the whole batch with 409.
+     */
+    @Transactional
+    public List<BatchItemResult> updateApplicationStatuses(List<StatusChange> changes) {
+        return observeTransition("batch").observe(() -> {
+            Map<Long, Application> applications = applicationRepository
+                    .findAllById(changes.stream().map(StatusChange::getApplicationId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Application::getId, Function.identity()));
+
+            List<BatchItemResult> results = new ArrayList<>(changes.size());
+            for (StatusChange change : changes) {
+                try {
+                    Application application = applications.get(change.getApplicationId());
+                    if (application == null || application.getStatus() == Status.DELETED) {
+                        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Application with id: " + change.getApplicationId() + " not found");
                     }
-                } else {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You can only publish or reject this application");
+                    results.add(BatchItemResult.success(applyTransition(application, change.getStatus(), change.getReason())));
+                } catch (ResponseStatusException e) {
+                    results.add(BatchItemResult.failure(e));
                 }
             }
-            case REJECTED -> {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You can not edit rejected application");
-            }
-        }
-        return saveApplication(application, applicationId);
+            flushChanges("Some of the applications were modified concurrently");
+            results.stream()
+                    .map(BatchItemResult::getApplication)
+                    .filter(Objects::nonNull)
+                    .forEach(applicationSearchIndex::indexStatus);
+            return results;
+        });
     }
 
+    /**
+     * Soft-deletes a created application: it becomes a {@link Status#DELETED} tombstone, written with a single
+     * versioned update and audited as one revision. Tombstones are hidden from reads and hard-deleted later by
+     * {@link ApplicationPurgeJob}.
+     */
+    @Transactional
     public void deleteApplication(Long applicationId, String reason) {
         Application application = getApplication(applicationId);
 
         if (application.getStatus().equals(Status.CREATED)) {
             application.setStatus(Status.DELETED);
             application.setReason(reason);
-            saveApplication(application, applicationId);
-            applicationRepository.delete(application);
+            application.setDeletedAt(Instant.now());
+            recordStatusChange(application, Status.CREATED);
+            applicationStatusCounters.moved(Status.CREATED, Status.DELETED);
+            flushChanges("Application with id: " + applicationId + " was modified concurrently");
+            applicationSearchIndex.remove(applicationId);
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You cannot delete this application");
         }
     }
 
     public Revisions<Integer, Application> getAudit(Long id) {
-        return applicationRepository.findRevisions(id);
+        auditJournalWriter.ifAvailable(AuditJournalWriter::awaitCaughtUp);
+        Revisions<Integer, Application> revisions = applicationRepository.findRevisions(id);
+        attachContent(revisions.stream().map(Revision::getEntity).toList());
+        return revisions;
+    }
+
+    /**
+     * State of the application at the given instant, read from its audit history.
+     */
+    public Application getApplicationAsOf(Long id, Instant asOf) {
+        auditJournalWriter.ifAvailable(AuditJournalWriter::awaitCaughtUp);
+        return applicationRepository.findAsOf(id, asOf)
+                .map(application -> {
+                    attachContent(List.of(application));
+                    return application;
+                })
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Application with id: " + id + " did not exist at " + asOf));
     }
 
-    private void generateUniteApplicationNumber(Application application) {
-        while (true) {
-            Long uniqueApplicationNumber = new Random().nextLong();
-            if (applicationRepository.findByApplicationNumber(uniqueApplicationNumber).isEmpty()) {
-                application.setApplicationNumber(uniqueApplicationNumber);
-                return;
+    public Slice<Application> getApplicationsAsOf(Status status, Instant asOf, Pageable pageable) {
+        auditJournalWriter.ifAvailable(AuditJournalWriter::awaitCaughtUp);
+        Slice<Application> applications = applicationRepository.findAllAsOf(status, asOf, pageable);
+        attachContent(applications.getContent());
+        return applications;
+    }
+
+    public Slice<Revision<Integer, Application>> getAudit(Long id, RevisionFilter filter, Pageable pageable) {
+        if (filter.getRevisionType() == RevisionMetadata.RevisionType.UNKNOWN) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot filter by unknown revision type");
+        }
+        auditJournalWriter.ifAvailable(AuditJournalWriter::awaitCaughtUp);
+        Slice<Revision<Integer, Application>> revisions = applicationRepository.findRevisions(id, filter, pageable);
+        attachContent(revisions.map(Revision::getEntity).getContent());
+        return revisions;
+    }
+
+    /**
+     * Audited states only carry the body hash. Sets their content, reading each distinct body once, through the
+     * second-level cache.
+     */
+    private void attachContent(List<Application> applications) {
+        Map<String, ApplicationContent> contents = new HashMap<>();
+        for (Application application : applications) {
+            String hash = application.getBodyHash();
+            if (hash != null) {
+                application.setContent(contents.computeIfAbsent(hash, key -> applicationContentRepository.findById(key).orElse(null)));
             }
         }
     }
+
+    private Observation observeTransition(String mode) {
+        return Observation.createNotStarted("application.transition", observationRegistry)
+                .lowCardinalityKeyValue("mode", mode);
+    }
+
+    private Application applyTransition(Application application, Status status, String reason) {
+        Status currentStatus = application.getStatus();
+        if (!currentStatus.canTransitionTo(status)) {
+            countStatusChange(currentStatus, status, "rejected");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, transitionErrorMessage(currentStatus));
+        }
+        if (status == Status.REJECTED && (reason == null || reason.isBlank())) {
+            countStatusChange(currentStatus, status, "rejected");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing reason");
+        }
+        countStatusChange(currentStatus, status, "applied");
+        applicationStatusCounters.moved(currentStatus, status);
+        application.setStatus(status);
+        if (status == Status.PUBLISHED) {
+            application.setApplicationNumber(applicationNumberGenerator.nextNumber());
+        }
+        if (status == Status.REJECTED) {
+            application.setReason(reason);
+        }
+        recordStatusChange(application, currentStatus);
+        return application;
+    }
+
+    private void recordStatusChange(Application application, Status previousStatus) {
+        applicationEventRepository.save(new ApplicationEvent(
+                application.getId(), previousStatus, application.getStatus(), application.getReason()));
+    }
+
+    private void countStatusChange(Status from, Status to, String outcome) {
+        meterRegistry.counter("application.status.changes",
+                "from", from.name(), "to", to.name(), "outcome", outcome).increment();
+    }
+
+    /**
+     * Returns the stored content with the same text, storing it first if no application has used that text yet.
+     * The row is written with {@code MERGE}, so two requests bringing the same new text both succeed: the later
+     * one waits for the earlier insert and then finds the row instead of violating the primary key. It goes
+     * through JDBC because a native Hibernate update would evict the whole second-level cache. The row is read back
+     * without putting it in the cache, since it is not committed yet and another request finding it there would
+     * reference a row it cannot see.
+     */
+    private ApplicationContent storeContent(ApplicationContent content) {
+        if (content == null) {
+            return null;
+        }
+        return applicationContentRepository.findById(content.getHash())
+                .orElseGet(() -> {
+                    jdbcTemplate.update(MERGE_CONTENT, content.getHash(), CONTENT_CONVERTER.convertToDatabaseColumn(content.getBody()));
+                    return entityManager.find(ApplicationContent.class, content.getHash(),
+                            Map.of(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS));
+                });
+    }
+
+    private void flushChanges(String conflictMessage) {
+        try {
+            applicationRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, conflictMessage);
+        }
+    }
+
+    private String transitionErrorMessage(Status currentStatus) {
+        return switch (currentStatus) {
+            case CREATED -> "You can only verify or delete this application";
+            case VERIFIED -> "You can only accept or reject this application";
+            case ACCEPTED -> "You can only publish or reject this application";
+            case REJECTED -> "You can not edit rejected application";
+            default -> "You can not edit " + currentStatus.name().toLowerCase() + " application";
+        };
+    }
 }
@@ -0,0 +1,14 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationDto;
+import lombok.Value;
+
+/**
+ * Detached, fully mapped state of an application together with the entity version it was read at. Unlike the
+ * entity it belongs to no persistence context, so it can be handed to other threads.
+ */
+@Value
+public class ApplicationSnapshot {
+    ApplicationDto application;
+    Long version;
+}
@@ -0,0 +1,83 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.StatusCount;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.repository.ApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory number of applications per status, so statistics can be read without counting rows.
+ * {@link ApplicationService} adjusts the counters after each committed create, transition and delete, and
+ * {@link ApplicationPurgeJob} after removing tombstones.
+ * Changes made around the service, e.g. directly in the database, are picked up by the periodic
+ * {@link #reconcile()} against a grouping count query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApplicationStatusCounters {
+    private final ApplicationRepository applicationRepository;
+    private final Map<Status, LongAdder> counters = newCounters();
+
+    public void created(Status status) {
+        AfterCommit.run(() -> counters.get(status).increment());
+    }
+
+    public void moved(Status from, Status to) {
+        AfterCommit.run(() -> {
+            counters.get(from).decrement();
+            counters.get(to).increment();
+        });
+    }
+
+    public void removed(Status status, long count) {
+        AfterCommit.run(() -> counters.get(status).add(-count));
+    }
+
+    public Map<Status, Long> snapshot() {
+        Map<Status, Long> snapshot = new EnumMap<>(Status.class);
+        counters.forEach((status, counter) -> snapshot.put(status, counter.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Replaces the counters with the current database counts. Changes committed while the query runs
+     * may be counted twice or not at all until the next reconciliation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${application.stats.reconcile-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for (StatusCount statusCount : applicationRepository.countByStatus()) {
+            counts.put(statusCount.getStatus(), statusCount.getCount());
+        }
+        counters.forEach((status, counter) -> {
+            long drift = counts.getOrDefault(status, 0L) - counter.sum();
+            if (drift != 0) {
+                counter.add(drift);
+            }
+        });
+        log.debug("Application status counters reconciled: {}", counts);
+    }
+
+    private static Map<Status, LongAdder> newCounters() {
+        Map<Status, LongAdder> counters = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counters.put(status, new LongAdder());
+        }
+        return counters;
+    }
+}
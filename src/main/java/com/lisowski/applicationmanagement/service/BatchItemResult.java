@@ -0,0 +1,22 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.Application;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+@Value
+public class BatchItemResult {
+    Application application;
+    HttpStatusCode status;
+    String message;
+
+    public static BatchItemResult success(Application application) {
+        return new BatchItemResult(application, HttpStatus.OK, null);
+    }
+
+    public static BatchItemResult failure(ResponseStatusException exception) {
+        return new BatchItemResult(null, exception.getStatusCode(), exception.getReason());
+    }
+}
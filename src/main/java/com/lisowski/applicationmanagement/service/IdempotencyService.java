@@ -0,0 +1,91 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lisowski.applicationmanagement.repository.IdempotencyRecord;
+import com.lisowski.applicationmanagement.repository.IdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}. The first request claims the key and its response is
+ * stored; a retry with the same key gets the stored response without the action being run again. A key is bound to
+ * the operation and request body it was first used with, and only successful responses are stored, so a failed
+ * request can be retried with the same key.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(operation, request);
+        Optional<IdempotencyRecord> existing = idempotencyStore.claim(key, fingerprint);
+        if (existing.isPresent()) {
+            return replay(existing.get(), fingerprint, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        }
+        idempotencyStore.complete(key, write(response));
+        return response;
+    }
+
+    private <T> T replay(IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+        }
+        if (record.isPending()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+        }
+        try {
+            return objectMapper.readValue(record.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response cannot be read", e);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        if (request == null) {
+            return operation;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return operation + " " + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lisowski.applicationmanagement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller runs the loader; callers arriving while it
+ * is running wait for and share its result or exception instead of loading again. At most {@code maxWaiters}
+ * callers wait per key, further ones are rejected with 503 so a burst cannot tie up every request thread.
+ * <p>
+ * Meters are tagged with the name of the key space, not with the keys, to keep their number bounded:
+ * {@code application.single.flight.calls} counts leaders, shared and rejected calls,
+ * {@code application.single.flight.waiters} records how many callers each load served, and
+ * {@code application.single.flight.in.flight} is the number of keys being loaded.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final int maxWaiters;
+    private final Counter leaderCalls;
+    private final Counter sharedCalls;
+    private final Counter rejectedCalls;
+    private final DistributionSummary waiters;
+
+    public SingleFlight(String name, int maxWaiters, MeterRegistry meterRegistry) {
+        this.maxWaiters = maxWaiters;
+        this.leaderCalls = calls(name, "leader", meterRegistry);
+        this.sharedCalls = calls(name, "shared", meterRegistry);
+        this.rejectedCalls = calls(name, "rejected", meterRegistry);
+        this.waiters = DistributionSummary.builder("application.single.flight.waiters")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("application.single.flight.in.flight", flights, ConcurrentHashMap::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            return join(running);
+        }
+
+        leaderCalls.increment();
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            waiters.record(flight.waiters.get());
+        }
+    }
+
+    private V join(Flight<V> flight) {
+        if (flight.waiters.incrementAndGet() > maxWaiters) {
+            flight.waiters.decrementAndGet();
+            rejectedCalls.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests for the same resource");
+        }
+        sharedCalls.increment();
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter calls(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("application.single.flight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
@@ -0,0 +1,11 @@
+package com.lisowski.applicationmanagement.service;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import lombok.Value;
+
+@Value
+public class StatusChange {
+    Long applicationId;
+    Status status;
+    String reason;
+}
@@ -0,0 +1,45 @@
+package com.lisowski.applicationmanagement.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket holding up to {@code capacity} tokens and refilled continuously at {@code tokensPerSecond}.
+ * A full bucket lets a client burst up to its capacity, after which it is held to the refill rate.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(long capacity, double tokensPerSecond, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one token if there is one. Returns {@link Duration#ZERO} when it was taken, otherwise how long the
+     * caller has to wait for the next token.
+     */
+    public synchronized Duration tryConsume() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+}
@@ -0,0 +1,9 @@
+-- Events are numbered when they are dispatched rather than when they are written, so the stream position follows
+-- commit order. Events dispatched so far keep their id as position; new positions continue after the highest id.
+ALTER TABLE application_event ADD COLUMN dispatch_sequence BIGINT;
+UPDATE application_event SET dispatch_sequence = id WHERE dispatched_at IS NOT NULL;
+
+CREATE SEQUENCE application_event_dispatch_seq START WITH 1 INCREMENT BY 1;
+ALTER SEQUENCE application_event_dispatch_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM application_event);
+
+CREATE UNIQUE INDEX idx_application_event_dispatch_sequence ON application_event (dispatch_sequence);
@@ -0,0 +1,40 @@
+CREATE SEQUENCE application_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE application_number_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE application
+(
+    id                 BIGINT       NOT NULL,
+    name               VARCHAR(255),
+    body               VARCHAR(255),
+    status             VARCHAR(255) NOT NULL,
+    application_number BIGINT,
+    reason             VARCHAR(255),
+    version            BIGINT,
+    CONSTRAINT pk_application PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX idx_application_number ON application (application_number);
+CREATE INDEX idx_application_status_id ON application (status, id);
+
+CREATE TABLE revinfo
+(
+    rev      INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    revtstmp BIGINT,
+    CONSTRAINT pk_revinfo PRIMARY KEY (rev)
+);
+
+CREATE TABLE application_aud
+(
+    rev                INTEGER NOT NULL,
+    revtype            TINYINT,
+    id                 BIGINT  NOT NULL,
+    name               VARCHAR(255),
+    body               VARCHAR(255),
+    status             VARCHAR(255),
+    application_number BIGINT,
+    reason             VARCHAR(255),
+    CONSTRAINT pk_application_aud PRIMARY KEY (rev, id),
+    CONSTRAINT fk_application_aud_revinfo FOREIGN KEY (rev) REFERENCES revinfo (rev)
+);
+
+CREATE INDEX idx_application_aud_id_rev ON application_aud (id, rev);
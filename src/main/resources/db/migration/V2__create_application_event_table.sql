@@ -0,0 +1,15 @@
+CREATE SEQUENCE application_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE application_event
+(
+    id             BIGINT                      NOT NULL,
+    application_id BIGINT                      NOT NULL,
+    from_status    VARCHAR(255)                NOT NULL,
+    to_status      VARCHAR(255)                NOT NULL,
+    reason         VARCHAR(255),
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    dispatched_at  TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_application_event PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_application_event_dispatched_id ON application_event (dispatched_at, id);
@@ -0,0 +1,2 @@
+ALTER TABLE application ADD COLUMN deleted_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE application_aud ADD COLUMN deleted_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,17 @@
+CREATE TABLE audit_journal
+(
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    tx_id              VARCHAR(36) NOT NULL,
+    revtstmp           BIGINT      NOT NULL,
+    revtype            TINYINT     NOT NULL,
+    application_id     BIGINT      NOT NULL,
+    name               VARCHAR(255),
+    body               VARCHAR(255),
+    status             VARCHAR(255),
+    application_number BIGINT,
+    reason             VARCHAR(255),
+    deleted_at         TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_audit_journal PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_journal_tx_id ON audit_journal (tx_id);
@@ -0,0 +1,2 @@
+CREATE INDEX idx_revinfo_revtstmp ON revinfo (revtstmp);
+CREATE INDEX idx_application_aud_status_id_rev ON application_aud (status, id, rev);
@@ -0,0 +1,10 @@
+CREATE TABLE idempotency_key
+(
+    idempotency_key VARCHAR(255)                NOT NULL,
+    fingerprint     VARCHAR(255)                NOT NULL,
+    response        CHARACTER LARGE OBJECT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
@@ -0,0 +1,8 @@
+CREATE TABLE replication_heartbeat
+(
+    id      INT                         NOT NULL,
+    beat_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_replication_heartbeat PRIMARY KEY (id)
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP);
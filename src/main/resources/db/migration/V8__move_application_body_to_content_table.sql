@@ -0,0 +1,25 @@
+CREATE TABLE application_content
+(
+    hash VARCHAR(64)           NOT NULL,
+    body BINARY LARGE OBJECT   NOT NULL,
+    CONSTRAINT pk_application_content PRIMARY KEY (hash)
+);
+
+-- Bodies are keyed by the hex SHA-256 of their UTF-8 bytes and stored uncompressed (marker byte 0).
+INSERT INTO application_content (hash, body)
+SELECT LOWER(RAWTOHEX(HASH('SHA-256', STRINGTOUTF8(body)))), X'00' || STRINGTOUTF8(body)
+FROM (SELECT body FROM application UNION SELECT body FROM application_aud) bodies
+WHERE body IS NOT NULL;
+
+ALTER TABLE application ADD COLUMN body_hash VARCHAR(64);
+ALTER TABLE application_aud ADD COLUMN body_hash VARCHAR(64);
+UPDATE application SET body_hash = LOWER(RAWTOHEX(HASH('SHA-256', STRINGTOUTF8(body)))) WHERE body IS NOT NULL;
+UPDATE application_aud SET body_hash = LOWER(RAWTOHEX(HASH('SHA-256', STRINGTOUTF8(body)))) WHERE body IS NOT NULL;
+ALTER TABLE application DROP COLUMN body;
+ALTER TABLE application_aud DROP COLUMN body;
+
+ALTER TABLE application ADD CONSTRAINT fk_application_content FOREIGN KEY (body_hash) REFERENCES application_content (hash);
+ALTER TABLE application_aud ADD CONSTRAINT fk_application_aud_content FOREIGN KEY (body_hash) REFERENCES application_content (hash);
+
+ALTER TABLE audit_journal ADD COLUMN body_hash VARCHAR(64);
+ALTER TABLE audit_journal DROP COLUMN body;
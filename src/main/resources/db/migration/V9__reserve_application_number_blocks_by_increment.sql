@@ -0,0 +1,6 @@
+-- The sequence now steps by the block size and each value is the first number of its block, so the block size
+-- lives in the database and cannot drift from what was already handed out. Numbers up to BASE_VALUE * 100 - 1
+-- were reserved under the former hi/lo scheme with blocks of 100, so the next block starts right after them.
+ALTER SEQUENCE application_number_seq
+    RESTART WITH (SELECT BASE_VALUE * 100 FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'APPLICATION_NUMBER_SEQ')
+    INCREMENT BY 100;
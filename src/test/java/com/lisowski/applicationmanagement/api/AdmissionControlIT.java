@@ -0,0 +1,116 @@
+package com.lisowski.applicationmanagement.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses the JDK client, because Apache HttpClient retries 429 responses by itself after their {@code Retry-After}.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "application.admission.api-keys=rate-limited,other-client,streaming,reader",
+        "application.admission.client.burst=3",
+        "application.admission.read.max-concurrent=2",
+        "application.admission.stream.max-concurrent=3",
+        "application.admission.client.permits-per-second=0.01"})
+public class AdmissionControlIT {
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    public void shouldRejectClientOverItsRateWithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(get("rate-limited").statusCode(), HttpStatus.NOT_FOUND.value());
+        }
+
+        HttpResponse<String> rejected = get("rate-limited");
+
+        assertEquals(rejected.statusCode(), HttpStatus.TOO_MANY_REQUESTS.value());
+        assertTrue(Long.parseLong(rejected.headers().firstValue(HttpHeaders.RETRY_AFTER).orElseThrow()) >= 99);
+        assertEquals(get("other-client").statusCode(), HttpStatus.NOT_FOUND.value());
+        assertEquals(meterRegistry.get("application.admission.requests")
+                .tag("kind", "read").tag("result", "rate-limited").counter().count(), 1);
+        assertEquals(meterRegistry.get("application.admission.in.flight").tag("kind", "read").gauge().value(), 0);
+    }
+
+    @Test
+    @DirtiesContext
+    public void shouldRateLimitUnknownKeysByAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(get(UUID.randomUUID().toString()).statusCode(), HttpStatus.NOT_FOUND.value());
+        }
+
+        assertEquals(get(UUID.randomUUID().toString()).statusCode(), HttpStatus.TOO_MANY_REQUESTS.value());
+        assertEquals(get("other-client").statusCode(), HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    @DirtiesContext
+    public void shouldLimitOpenStreamsWithoutBlockingPlainReads() throws Exception {
+        List<CompletableFuture<HttpResponse<Stream<String>>>> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                streams.add(httpClient.sendAsync(events(), HttpResponse.BodyHandlers.ofLines()));
+            }
+            Instant deadline = Instant.now().plusSeconds(10);
+            while (inFlight("stream") < 3 && Instant.now().isBefore(deadline)) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(inFlight("stream"), 3);
+            assertEquals(inFlight("read"), 0);
+            assertEquals(get("reader").statusCode(), HttpStatus.NOT_FOUND.value());
+            assertEquals(get("reader").statusCode(), HttpStatus.NOT_FOUND.value());
+            assertEquals(get("reader").statusCode(), HttpStatus.NOT_FOUND.value());
+            assertEquals(httpClient.send(events(), HttpResponse.BodyHandlers.discarding()).statusCode(),
+                    HttpStatus.TOO_MANY_REQUESTS.value());
+            assertEquals(meterRegistry.get("application.admission.requests")
+                    .tag("kind", "stream").tag("result", "concurrency-limited").counter().count(), 1);
+        } finally {
+            streams.forEach(stream -> stream.cancel(true));
+        }
+    }
+
+    private HttpRequest events() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/applications/events"))
+                .header(AdmissionControlFilter.API_KEY, "streaming")
+                .build();
+    }
+
+    private double inFlight(String kind) {
+        return meterRegistry.get("application.admission.in.flight").tag("kind", kind).gauge().value();
+    }
+
+    private HttpResponse<String> get(String apiKey) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/applications/43253465"))
+                .header(AdmissionControlFilter.API_KEY, apiKey)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
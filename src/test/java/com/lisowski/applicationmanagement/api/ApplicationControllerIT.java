@@ -5,35 +5,95 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lisowski.applicationmanagement.mapper.dto.ApplicationAudDto;
 import com.lisowski.applicationmanagement.mapper.dto.ApplicationDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationEventDto;
+import com.lisowski.applicationmanagement.mapper.dto.ApplicationStatsDto;
+import com.lisowski.applicationmanagement.mapper.dto.BatchItemResultDto;
+import com.lisowski.applicationmanagement.mapper.dto.CursorPageDto;
 import com.lisowski.applicationmanagement.mapper.dto.ReasonDto;
+import com.lisowski.applicationmanagement.mapper.dto.TransitionDto;
 import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import com.lisowski.applicationmanagement.model.ApplicationEvent;
+import com.lisowski.applicationmanagement.repository.ApplicationEventRepository;
 import com.lisowski.applicationmanagement.repository.ApplicationRepository;
+import com.lisowski.applicationmanagement.service.ApplicationEventDispatcher;
+import com.lisowski.applicationmanagement.service.ApplicationPurgeJob;
+import com.lisowski.applicationmanagement.service.ApplicationReadCoalescer;
+import com.lisowski.applicationmanagement.service.ApplicationService;
+import com.lisowski.applicationmanagement.service.ApplicationSnapshot;
+import com.lisowski.applicationmanagement.service.ApplicationStatusCounters;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@AutoConfigureObservability
 public class ApplicationControllerIT {
     @Autowired
     private ApplicationRepository repository;
     private final String URL = "http://localhost:9091/api/applications";
     @Autowired
     ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationStatusCounters statusCounters;
+    @Autowired
+    private ApplicationEventRepository eventRepository;
+    @Autowired
+    private ApplicationPurgeJob purgeJob;
+    @Autowired
+    private ApplicationEventDispatcher eventDispatcher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationReadCoalescer applicationReadCoalescer;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private static final TestRestTemplate restTemplate = new TestRestTemplate();
 
@@ -107,6 +167,134 @@ public class ApplicationControllerIT {
         assertNull(response.getBody().getApplicationNumber());
     }
 
+    @Test
+    public void shouldRevalidateAndConditionallyUpdateWithETag() {
+        ApplicationDto application = createApplication();
+        String url = URL + "/" + application.getId();
+
+        ResponseEntity<ApplicationDto> response = restTemplate.getForEntity(url, ApplicationDto.class);
+        String eTag = response.getHeaders().getETag();
+        ResponseEntity<String> notModified = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(header(HttpHeaders.IF_NONE_MATCH, eTag)), String.class);
+
+        assertNotNull(eTag);
+        assertEquals(notModified.getStatusCode(), HttpStatus.NOT_MODIFIED);
+        assertNull(notModified.getBody());
+
+        application.setName("newName");
+        ResponseEntity<ApplicationDto> updated = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(application, header(HttpHeaders.IF_MATCH, eTag)), ApplicationDto.class);
+        ResponseEntity<String> stale = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(application, header(HttpHeaders.IF_MATCH, eTag)), String.class);
+        ResponseEntity<ApplicationDto> refetched = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(header(HttpHeaders.IF_NONE_MATCH, eTag)), ApplicationDto.class);
+
+        assertEquals(updated.getStatusCode(), HttpStatus.OK);
+        assertNotEquals(updated.getHeaders().getETag(), eTag);
+        assertEquals(stale.getStatusCode(), HttpStatus.PRECONDITION_FAILED);
+        assertEquals(refetched.getStatusCode(), HttpStatus.OK);
+        assertEquals(refetched.getHeaders().getETag(), updated.getHeaders().getETag());
+        assertEquals(refetched.getBody().getName(), "newName");
+    }
+
+    @Test
+    public void shouldCompressAndRevalidateListPages() throws Exception {
+        ApplicationDto request = new ApplicationDto();
+        request.setName("compressed app");
+        request.setBody("Something long enough to be worth compressing. ".repeat(4));
+        restTemplate.postForEntity(URL + "/batch", Collections.nCopies(10, request), String.class);
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create(URL + "?name=compressed%20app&fields=body");
+
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        String eTag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        HttpResponse<byte[]> notModified = client.send(HttpRequest.newBuilder(uri).header(HttpHeaders.IF_NONE_MATCH, eTag).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(response.statusCode(), HttpStatus.OK.value());
+        assertEquals(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null), "gzip");
+        assertEquals(notModified.statusCode(), HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    public void shouldReplayRequestsWithSameIdempotencyKey() {
+        ApplicationDto request = new ApplicationDto();
+        request.setName("idempotent app");
+        request.setBody("Something");
+        HttpHeaders createKey = header("Idempotency-Key", UUID.randomUUID().toString());
+
+        ApplicationDto created = restTemplate.postForObject(URL, new HttpEntity<>(request, createKey), ApplicationDto.class);
+        ApplicationDto retried = restTemplate.postForObject(URL, new HttpEntity<>(request, createKey), ApplicationDto.class);
+        request.setBody("Something else");
+        ResponseEntity<String> reused = restTemplate.postForEntity(URL, new HttpEntity<>(request, createKey), String.class);
+
+        assertEquals(retried.getId(), created.getId());
+        assertEquals(repository.findAll().size(), 1);
+        assertEquals(reused.getStatusCode(), HttpStatus.UNPROCESSABLE_ENTITY);
+
+        restTemplate.patchForObject(URL + "/" + created.getId() + "/verify", null, ApplicationDto.class);
+        restTemplate.patchForObject(URL + "/" + created.getId() + "/accept", null, ApplicationDto.class);
+        HttpEntity<Void> publishKey = new HttpEntity<>(header("Idempotency-Key", UUID.randomUUID().toString()));
+        ResponseEntity<ApplicationDto> published =
+                restTemplate.exchange(URL + "/" + created.getId() + "/publish", HttpMethod.PATCH, publishKey, ApplicationDto.class);
+        ResponseEntity<ApplicationDto> republished =
+                restTemplate.exchange(URL + "/" + created.getId() + "/publish", HttpMethod.PATCH, publishKey, ApplicationDto.class);
+
+        assertEquals(published.getStatusCode(), HttpStatus.OK);
+        assertEquals(republished.getStatusCode(), HttpStatus.OK);
+        assertEquals(republished.getBody().getApplicationNumber(), published.getBody().getApplicationNumber());
+    }
+
+    @Test
+    public void shouldReturnFreshApplicationAfterTransition() {
+        ApplicationDto application = createApplication();
+        assertEquals(restTemplate.getForObject(URL + "/" + application.getId(), ApplicationDto.class).getStatus(), Status.CREATED);
+
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/verify", null, ApplicationDto.class);
+
+        assertEquals(restTemplate.getForObject(URL + "/" + application.getId(), ApplicationDto.class).getStatus(), Status.VERIFIED);
+    }
+
+    @Test
+    public void shouldRejectTransitionRacingWithAnotherWithConflict() {
+        ApplicationDto application = createApplication();
+        Long version = repository.findById(application.getId()).orElseThrow().getVersion();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, () -> transaction.executeWithoutResult(status -> {
+            applicationService.getApplication(application.getId());
+            ResponseEntity<ApplicationDto> verified =
+                    restTemplate.exchange(URL + "/" + application.getId() + "/verify", HttpMethod.PATCH, null, ApplicationDto.class);
+            assertEquals(verified.getStatusCode(), HttpStatus.OK);
+
+            applicationService.updateApplicationStatus(Status.VERIFIED, application.getId());
+        }));
+
+        assertEquals(conflict.getStatusCode(), HttpStatus.CONFLICT);
+        Application stored = repository.findById(application.getId()).orElseThrow();
+        assertEquals(stored.getStatus(), Status.VERIFIED);
+        assertEquals(stored.getVersion(), version + 1);
+        assertEquals(eventRepository.findAll().stream()
+                .filter(event -> event.getApplicationId().equals(application.getId()))
+                .count(), 1);
+    }
+
+    @Test
+    public void shouldShareDetachedApplicationBetweenConcurrentReaders() throws Exception {
+        ApplicationDto application = createApplication();
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ApplicationSnapshot>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(readers.submit(() -> applicationReadCoalescer.getApplication(application.getId())));
+            }
+            for (Future<ApplicationSnapshot> read : reads) {
+                ApplicationSnapshot snapshot = read.get(10, TimeUnit.SECONDS);
+                assertEquals(snapshot.getApplication().getBody(), "Something");
+                assertEquals(snapshot.getVersion(), repository.findById(application.getId()).orElseThrow().getVersion());
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
     @Test
     public void shouldDeleteCreatedApplication() {
         ApplicationDto application = createApplication();
@@ -119,6 +307,53 @@ public class ApplicationControllerIT {
         assertEquals(response.getStatusCode(), HttpStatus.OK);
     }
 
+    @Test
+    public void shouldHideDeletedApplicationUntilPurged() throws JsonProcessingException {
+        ApplicationDto application = createApplication("deleted app");
+        ReasonDto reason = new ReasonDto();
+        reason.setReason("some reason");
+        restTemplate.exchange(URL + "/" + application.getId(), HttpMethod.DELETE, new HttpEntity<>(reason), String.class);
+
+        ResponseEntity<String> found = restTemplate.getForEntity(URL + "/" + application.getId(), String.class);
+        ResponseEntity<String> listed = restTemplate.getForEntity(URL + "?name=deleted app", String.class);
+        List<ApplicationAudDto> audit = getAudit(application.getId());
+
+        assertEquals(found.getStatusCode(), HttpStatus.NOT_FOUND);
+        assertEquals(objectMapper.readTree(listed.getBody()).get("totalElements").asInt(), 0);
+        assertEquals(audit.size(), 2);
+        assertEquals(audit.get(1).getStatus(), Status.DELETED);
+        assertEquals(audit.get(1).getReason(), "some reason");
+
+        assertEquals(purgeJob.purgeDeletedBefore(Instant.now().plusSeconds(1)), 1);
+        assertTrue(repository.findById(application.getId()).isEmpty());
+        assertEquals(getAudit(application.getId()).size(), 2);
+    }
+
+    @Test
+    public void shouldNotListDeletedApplicationsWhenFilteringByDeletedStatus() throws JsonProcessingException {
+        ApplicationDto application = createApplication("deleted app");
+        ReasonDto reason = new ReasonDto();
+        reason.setReason("some reason");
+        restTemplate.exchange(URL + "/" + application.getId(), HttpMethod.DELETE, new HttpEntity<>(reason), String.class);
+
+        ResponseEntity<String> page = restTemplate.getForEntity(URL + "?status=DELETED", String.class);
+        ResponseEntity<String> pageWithBody = restTemplate.getForEntity(URL + "?status=DELETED&fields=body", String.class);
+        ResponseEntity<String> cursor = restTemplate.getForEntity(URL + "/cursor?status=DELETED", String.class);
+        ResponseEntity<String> cursorWithBody = restTemplate.getForEntity(URL + "/cursor?status=DELETED&fields=body", String.class);
+        ResponseEntity<String> export = restTemplate.getForEntity(URL + "/export?status=DELETED", String.class);
+        ResponseEntity<String> asOf = restTemplate.getForEntity(URL + "/as-of?status=DELETED&asOf=" + Instant.now().plusSeconds(1), String.class);
+
+        assertEquals(page.getStatusCode(), HttpStatus.OK);
+        assertEquals(objectMapper.readTree(page.getBody()).get("totalElements").asInt(), 0);
+        assertEquals(objectMapper.readTree(pageWithBody.getBody()).get("totalElements").asInt(), 0);
+        assertEquals(objectMapper.readTree(cursor.getBody()).get("content").size(), 0);
+        assertEquals(objectMapper.readTree(cursorWithBody.getBody()).get("content").size(), 0);
+        assertEquals(export.getStatusCode(), HttpStatus.OK);
+        assertEquals(export.getBody() == null ? 0 : export.getBody().lines().count(), 0);
+        assertEquals(asOf.getStatusCode(), HttpStatus.OK);
+        assertEquals(objectMapper.readTree(asOf.getBody()).get("content").size(), 0);
+    }
+
     @Test
     public void shouldThrowErrorWhenDeleteCreatedApplicationWithoutReason() {
         ApplicationDto application = createApplication();
@@ -162,6 +397,48 @@ public class ApplicationControllerIT {
         assertNull(updateResponse.getBody().getApplicationNumber());
     }
 
+    @Test
+    public void shouldStoreSharedBodiesOnceAndCompressLongOnes() throws JsonProcessingException {
+        String longBody = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(100);
+        createApplication("first");
+        ApplicationDto application = createApplication("second");
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT body_hash) FROM application", Integer.class), 1);
+        application.setBody(longBody);
+
+        ResponseEntity<ApplicationDto> response = restTemplate.exchange(URL + "/" + application.getId(), HttpMethod.PUT, new HttpEntity<>(application), ApplicationDto.class);
+        List<ApplicationAudDto> audit = getAudit(application.getId());
+
+        assertEquals(response.getBody().getBody(), longBody);
+        assertEquals(restTemplate.getForObject(URL + "/" + application.getId(), ApplicationDto.class).getBody(), longBody);
+        assertEquals(audit.get(0).getBody(), "Something");
+        assertEquals(audit.get(1).getBody(), longBody);
+        assertTrue(jdbcTemplate.queryForObject("SELECT OCTET_LENGTH(c.body) FROM application_content c JOIN application a "
+                + "ON a.body_hash = c.hash WHERE a.id = ?", Integer.class, application.getId()) < longBody.length() / 4);
+    }
+
+    @Test
+    public void shouldStoreSameNewBodyFromConcurrentRequests() throws Exception {
+        String body = "Concurrent body " + UUID.randomUUID();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                ApplicationDto request = new ApplicationDto();
+                request.setName("concurrent app " + i);
+                request.setBody(body);
+                responses.add(clients.submit(() -> restTemplate.postForEntity(URL, request, String.class)));
+            }
+            for (Future<ResponseEntity<String>> response : responses) {
+                ResponseEntity<String> created = response.get(10, TimeUnit.SECONDS);
+                assertEquals(created.getStatusCode(), HttpStatus.OK, created.getBody());
+                assertEquals(objectMapper.readValue(created.getBody(), ApplicationDto.class).getBody(), body);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT body_hash) FROM application", Long.class), 1L);
+    }
+
     @Test
     public void shouldThrowExceptionWhenDeleteVerifiedApplication() {
         ApplicationDto application = createApplication();
@@ -258,6 +535,150 @@ public class ApplicationControllerIT {
         assertNotNull(rejectResponse.getBody().getApplicationNumber());
     }
 
+    @Test
+    public void shouldListApplicationsWithoutBodyUnlessRequested() {
+        createApplication();
+
+        ResponseEntity<String> summaryResponse = restTemplate.getForEntity(URL, String.class);
+        ResponseEntity<String> fullResponse = restTemplate.getForEntity(URL + "?fields=body", String.class);
+
+        assertEquals(summaryResponse.getStatusCode(), HttpStatus.OK);
+        assertTrue(summaryResponse.getBody().contains("\"name\":\"new app\""));
+        assertFalse(summaryResponse.getBody().contains("\"body\""));
+        assertEquals(fullResponse.getStatusCode(), HttpStatus.OK);
+        assertTrue(fullResponse.getBody().contains("\"body\":\"Something\""));
+    }
+
+    @Test
+    public void shouldAssignDistinctNumbersToPublishedApplications() {
+        ApplicationDto first = publishApplication(createApplication());
+        ApplicationDto second = publishApplication(createApplication());
+
+        assertNotNull(first.getApplicationNumber());
+        assertNotNull(second.getApplicationNumber());
+        assertNotEquals(first.getApplicationNumber(), second.getApplicationNumber());
+    }
+
+    @Test
+    public void shouldAssignUniqueContiguousNumbersToConcurrentPublishes() throws Exception {
+        List<ApplicationDto> applications = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ApplicationDto application = createApplication();
+            restTemplate.patchForObject(URL + "/" + application.getId() + "/verify", null, ApplicationDto.class);
+            restTemplate.patchForObject(URL + "/" + application.getId() + "/accept", null, ApplicationDto.class);
+            applications.add(application);
+        }
+        ExecutorService publishers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<ApplicationDto>>> publishes = new ArrayList<>();
+            for (ApplicationDto application : applications) {
+                publishes.add(publishers.submit(() -> restTemplate.exchange(
+                        URL + "/" + application.getId() + "/publish", HttpMethod.PATCH, null, ApplicationDto.class)));
+            }
+            List<Long> numbers = new ArrayList<>();
+            for (Future<ResponseEntity<ApplicationDto>> publish : publishes) {
+                ResponseEntity<ApplicationDto> response = publish.get(30, TimeUnit.SECONDS);
+                assertEquals(response.getStatusCode(), HttpStatus.OK);
+                numbers.add(response.getBody().getApplicationNumber());
+            }
+
+            assertEquals(numbers.stream().distinct().count(), applications.size());
+            assertEquals(Collections.max(numbers) - Collections.min(numbers), applications.size() - 1);
+        } finally {
+            publishers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnErrorWhenVerifyPublishedApplication() {
+        ApplicationDto application = publishApplication(createApplication());
+
+        ResponseEntity<String> response =
+                restTemplate.exchange(URL + "/" + application.getId() + "/verify", HttpMethod.PATCH, null, String.class);
+
+        assertEquals(response.getStatusCode(), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void shouldCreateApplicationsInBatch() throws JsonProcessingException {
+        ApplicationDto valid = new ApplicationDto();
+        valid.setName("batch app");
+        valid.setBody("Something");
+        ApplicationDto invalid = new ApplicationDto();
+        invalid.setName("batch app");
+
+        ResponseEntity<String> response = restTemplate.postForEntity(URL + "/batch", List.of(valid, invalid), String.class);
+        List<BatchItemResultDto> results = objectMapper.readValue(response.getBody(), new TypeReference<>() {
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).getStatus(), HttpStatus.OK.value());
+        assertNotNull(results.get(0).getApplication().getId());
+        assertEquals(results.get(0).getApplication().getStatus(), Status.CREATED);
+        assertEquals(results.get(1).getStatus(), HttpStatus.BAD_REQUEST.value());
+        assertNull(results.get(1).getApplication());
+    }
+
+    @Test
+    public void shouldApplyTransitionsInBatch() throws JsonProcessingException {
+        ApplicationDto first = createApplication();
+        ApplicationDto second = createApplication();
+        TransitionDto verify = new TransitionDto();
+        verify.setId(first.getId());
+        verify.setTargetStatus(Status.VERIFIED);
+        TransitionDto publish = new TransitionDto();
+        publish.setId(second.getId());
+        publish.setTargetStatus(Status.PUBLISHED);
+        TransitionDto missing = new TransitionDto();
+        missing.setId(43253465L);
+        missing.setTargetStatus(Status.VERIFIED);
+
+        ResponseEntity<String> response =
+                restTemplate.postForEntity(URL + "/transitions", List.of(verify, publish, missing), String.class);
+        List<BatchItemResultDto> results = objectMapper.readValue(response.getBody(), new TypeReference<>() {
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(results.size(), 3);
+        assertEquals(results.get(0).getStatus(), HttpStatus.OK.value());
+        assertEquals(results.get(0).getApplication().getStatus(), Status.VERIFIED);
+        assertEquals(results.get(1).getStatus(), HttpStatus.BAD_REQUEST.value());
+        assertEquals(results.get(2).getStatus(), HttpStatus.NOT_FOUND.value());
+        assertEquals(restTemplate.getForObject(URL + "/" + second.getId(), ApplicationDto.class).getStatus(), Status.CREATED);
+    }
+
+    @Test
+    public void shouldApplyTransitionsInBatchWithoutLoadingBodies() throws JsonProcessingException {
+        List<TransitionDto> transitions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ApplicationDto request = new ApplicationDto();
+            request.setName("batch app " + i);
+            request.setBody("Batch body " + i);
+            TransitionDto verify = new TransitionDto();
+            verify.setId(restTemplate.postForObject(URL, request, ApplicationDto.class).getId());
+            verify.setTargetStatus(Status.VERIFIED);
+            transitions.add(verify);
+        }
+        entityManagerFactory.getCache().evictAll();
+        EntityStatistics contentStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getEntityStatistics(ApplicationContent.class.getName());
+        long loadsBefore = contentStatistics.getLoadCount();
+        long fetchesBefore = contentStatistics.getFetchCount();
+
+        ResponseEntity<String> response = restTemplate.postForEntity(URL + "/transitions", transitions, String.class);
+        List<BatchItemResultDto> results = objectMapper.readValue(response.getBody(), new TypeReference<>() {
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(results.get(i).getApplication().getStatus(), Status.VERIFIED);
+            assertNull(results.get(i).getApplication().getBody());
+        }
+        assertEquals(contentStatistics.getLoadCount(), loadsBefore);
+        assertEquals(contentStatistics.getFetchCount(), fetchesBefore);
+    }
+
     @Test
     public void shouldGetPagedApplicationsFilteredByName() {
         for (int i = 0; i < 50; i++) {
@@ -273,6 +694,51 @@ public class ApplicationControllerIT {
         assertTrue(response.getBody().contains("\"pageSize\":10"));
     }
 
+    @Test
+    public void shouldSearchApplicationsByNameAndBody() throws JsonProcessingException {
+        ApplicationDto byName = createApplication("Solar farm permit");
+        ApplicationDto verified = createApplication("Wind farm permit");
+        restTemplate.patchForObject(URL + "/" + verified.getId() + "/verify", null, ApplicationDto.class);
+        createApplication("Unrelated");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(URL + "/search?query=far perm", String.class);
+        List<ApplicationDto> found = objectMapper.readValue(response.getBody(), new TypeReference<>() {
+        });
+        ResponseEntity<String> filteredResponse = restTemplate.getForEntity(URL + "/search?query=farm&status=VERIFIED", String.class);
+        List<ApplicationDto> filtered = objectMapper.readValue(filteredResponse.getBody(), new TypeReference<>() {
+        });
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(found.stream().map(ApplicationDto::getId).sorted().toList(),
+                List.of(byName.getId(), verified.getId()));
+        assertEquals(filtered.size(), 1);
+        assertEquals(filtered.get(0).getId(), verified.getId());
+    }
+
+    @Test
+    public void shouldGetApplicationsPageByPageWithCursor() throws JsonProcessingException {
+        for (int i = 0; i < 25; i++) {
+            createApplication();
+        }
+        List<Long> ids = new ArrayList<>();
+        String next = null;
+        int pages = 0;
+        do {
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    URL + "/cursor?size=10" + (next == null ? "" : "&after=" + next), String.class);
+            CursorPageDto<ApplicationDto> page = objectMapper.readValue(response.getBody(), new TypeReference<>() {
+            });
+            assertEquals(response.getStatusCode(), HttpStatus.OK);
+            page.getContent().forEach(application -> ids.add(application.getId()));
+            next = page.getNext();
+            pages++;
+        } while (next != null);
+
+        assertEquals(pages, 3);
+        assertEquals(ids.size(), 25);
+        assertEquals(ids.stream().distinct().sorted().toList(), ids);
+    }
+
     @Test
     public void shouldGetAuditLogPublishedApplication() throws JsonProcessingException {
         ApplicationDto application = createApplication();
@@ -304,6 +770,246 @@ public class ApplicationControllerIT {
         assertEquals(list.get(1).getStatus(), Status.VERIFIED);
         assertEquals(list.get(2).getStatus(), Status.ACCEPTED);
         assertEquals(list.get(3).getStatus(), Status.PUBLISHED);
+        assertEquals(list.get(3).getBody(), application.getBody());
+    }
+
+    @Test
+    public void shouldGetFilteredAuditPage() {
+        ApplicationDto application = publishApplication(createApplication());
+
+        ResponseEntity<String> response =
+                restTemplate.getForEntity(URL + "/" + application.getId() + "/audit/page?type=UPDATE&size=2", String.class);
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertTrue(response.getBody().contains("\"status\":\"VERIFIED\""));
+        assertTrue(response.getBody().contains("\"status\":\"ACCEPTED\""));
+        assertFalse(response.getBody().contains("\"status\":\"CREATED\""));
+        assertTrue(response.getBody().contains("\"last\":false"));
+    }
+
+    @Test
+    public void shouldReadApplicationsAsOfPointInTime() throws Exception {
+        Instant beforeCreation = Instant.now();
+        Thread.sleep(5);
+        ApplicationDto application = createApplication();
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/verify", null, ApplicationDto.class);
+        Thread.sleep(5);
+        Instant verified = Instant.now();
+        Thread.sleep(5);
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/accept", null, ApplicationDto.class);
+
+        ResponseEntity<ApplicationDto> asOfResponse =
+                restTemplate.getForEntity(URL + "/" + application.getId() + "?asOf=" + verified, ApplicationDto.class);
+        ResponseEntity<String> beforeResponse =
+                restTemplate.getForEntity(URL + "/" + application.getId() + "?asOf=" + beforeCreation, String.class);
+        ResponseEntity<String> listResponse =
+                restTemplate.getForEntity(URL + "/as-of?asOf=" + verified + "&status=VERIFIED", String.class);
+
+        assertEquals(asOfResponse.getStatusCode(), HttpStatus.OK);
+        assertEquals(asOfResponse.getBody().getStatus(), Status.VERIFIED);
+        assertEquals(asOfResponse.getBody().getBody(), application.getBody());
+        assertEquals(beforeResponse.getStatusCode(), HttpStatus.NOT_FOUND);
+        assertEquals(listResponse.getStatusCode(), HttpStatus.OK);
+        assertTrue(listResponse.getBody().contains("\"id\":" + application.getId()));
+        assertEquals(restTemplate.getForObject(URL + "/" + application.getId(), ApplicationDto.class).getStatus(), Status.ACCEPTED);
+    }
+
+    @Test
+    public void shouldNotReadDeletedApplicationAsOfAfterDeletion() throws Exception {
+        ApplicationDto application = createApplication();
+        Thread.sleep(5);
+        Instant created = Instant.now();
+        Thread.sleep(5);
+        ReasonDto reason = new ReasonDto();
+        reason.setReason("some reason");
+        restTemplate.exchange(URL + "/" + application.getId(), HttpMethod.DELETE, new HttpEntity<>(reason), String.class);
+        Thread.sleep(5);
+        Instant deleted = Instant.now();
+
+        ResponseEntity<ApplicationDto> beforeDeletion =
+                restTemplate.getForEntity(URL + "/" + application.getId() + "?asOf=" + created, ApplicationDto.class);
+        ResponseEntity<String> afterDeletion =
+                restTemplate.getForEntity(URL + "/" + application.getId() + "?asOf=" + deleted, String.class);
+        ResponseEntity<String> listAfterDeletion = restTemplate.getForEntity(URL + "/as-of?asOf=" + deleted, String.class);
+
+        assertEquals(beforeDeletion.getStatusCode(), HttpStatus.OK);
+        assertEquals(beforeDeletion.getBody().getStatus(), Status.CREATED);
+        assertEquals(afterDeletion.getStatusCode(), HttpStatus.NOT_FOUND);
+        assertFalse(listAfterDeletion.getBody().contains("\"id\":" + application.getId() + ","));
+    }
+
+    @Test
+    public void shouldStreamAuditAsNdjson() throws JsonProcessingException {
+        ApplicationDto application = publishApplication(createApplication());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                URL + "/" + application.getId() + "/audit", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        List<String> lines = response.getBody().lines().toList();
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertEquals(lines.size(), 4);
+        assertEquals(objectMapper.readValue(lines.get(0), ApplicationAudDto.class).getStatus(), Status.CREATED);
+        assertEquals(objectMapper.readValue(lines.get(3), ApplicationAudDto.class).getStatus(), Status.PUBLISHED);
+    }
+
+    @Test
+    public void shouldExposeTransitionAndRepositoryMetrics() {
+        ApplicationDto application = createApplication();
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/verify", null, ApplicationDto.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:9091/actuator/prometheus", String.class);
+
+        assertEquals(response.getStatusCode(), HttpStatus.OK);
+        assertTrue(response.getBody().contains("application_status_changes_total{from=\"CREATED\",outcome=\"applied\",to=\"VERIFIED\""));
+        assertTrue(response.getBody().contains("application_transition_seconds_count{error=\"none\",mode=\"single\""));
+        assertTrue(response.getBody().contains("spring_data_repository_invocations_seconds_bucket"));
+        assertTrue(response.getBody().contains("hikaricp_connections_active"));
+        assertTrue(response.getBody().contains("hibernate_second_level_cache_requests_total"));
+    }
+
+    @Test
+    public void shouldExportApplicationsAsNdjsonAndCsv() throws JsonProcessingException {
+        ApplicationDto verified = createApplication("exported app");
+        createApplication("exported app");
+        createApplication("other app");
+        restTemplate.patchForObject(URL + "/" + verified.getId() + "/verify", null, ApplicationDto.class);
+
+        ResponseEntity<String> ndjson = restTemplate.getForEntity(URL + "/export?name=exported", String.class);
+        ResponseEntity<String> csv = restTemplate.getForEntity(URL + "/export?format=csv&status=VERIFIED", String.class);
+        List<String> ndjsonLines = ndjson.getBody().lines().toList();
+        List<String> csvLines = csv.getBody().lines().toList();
+
+        assertEquals(ndjson.getStatusCode(), HttpStatus.OK);
+        assertEquals(ndjsonLines.size(), 2);
+        assertEquals(objectMapper.readValue(ndjsonLines.get(0), ApplicationDto.class).getId(), verified.getId());
+        assertEquals(csv.getHeaders().getContentType().toString(), "text/csv");
+        assertEquals(csvLines.size(), 2);
+        assertEquals(csvLines.get(0), "id,name,body,status,applicationNumber,reason");
+        assertEquals(csvLines.get(1), verified.getId() + ",\"exported app\",Something,VERIFIED,,");
+        assertEquals(restTemplate.getForEntity(URL + "/export?format=xml", String.class).getStatusCode(), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void shouldStreamStatusChangesAndResumeFromLastEventId() throws JsonProcessingException {
+        long lastEventId = lastDispatchedEventId();
+        ApplicationDto published = publishApplication(createApplication());
+        ApplicationDto deleted = createApplication();
+        ReasonDto reason = new ReasonDto();
+        reason.setReason("some reason");
+        restTemplate.exchange(URL + "/" + deleted.getId(), HttpMethod.DELETE, new HttpEntity<>(reason), String.class);
+
+        List<ApplicationEventDto> events = readEvents(lastEventId, 4);
+        List<ApplicationEventDto> resumed = readEvents(events.get(1).getId(), 2);
+
+        assertEquals(events.get(0).getApplicationId(), published.getId());
+        assertEquals(events.get(0).getToStatus(), Status.VERIFIED);
+        assertEquals(events.get(2).getFromStatus(), Status.ACCEPTED);
+        assertEquals(events.get(2).getToStatus(), Status.PUBLISHED);
+        assertEquals(events.get(3).getApplicationId(), deleted.getId());
+        assertEquals(events.get(3).getToStatus(), Status.DELETED);
+        assertEquals(events.get(3).getReason(), "some reason");
+        assertEquals(resumed, events.subList(2, 4));
+    }
+
+    @Test
+    public void shouldResumeAfterEventCommittedLaterWithLowerId() {
+        lastDispatchedEventId();
+        insertEvent(100_000_001L, 2L);
+        long committedFirst = lastDispatchedEventId();
+        insertEvent(100_000_000L, 1L);
+
+        List<ApplicationEventDto> resumed = readEvents(committedFirst, 1);
+
+        assertEquals(resumed.get(0).getApplicationId(), 1L);
+        assertTrue(resumed.get(0).getId() > committedFirst);
+    }
+
+    @Test
+    public void shouldKeepCachedApplicationsWhenDispatchingEvents() {
+        ApplicationDto cached = createApplication("cached app");
+        restTemplate.getForObject(URL + "/" + cached.getId(), ApplicationDto.class);
+        assertTrue(entityManagerFactory.getCache().contains(Application.class, cached.getId()));
+        ApplicationDto verified = createApplication();
+        restTemplate.patchForObject(URL + "/" + verified.getId() + "/verify", null, ApplicationDto.class);
+
+        long lastEventId = lastDispatchedEventId();
+
+        assertEquals(eventRepository.findAll().stream()
+                .filter(event -> event.getApplicationId().equals(verified.getId()))
+                .map(ApplicationEvent::getDispatchSequence)
+                .toList(), List.of(lastEventId));
+        assertTrue(entityManagerFactory.getCache().contains(Application.class, cached.getId()));
+    }
+
+    @Test
+    public void shouldCountApplicationsPerStatus() {
+        statusCounters.reconcile();
+        ApplicationDto verified = createApplication();
+        ApplicationDto deleted = createApplication();
+        createApplication();
+        restTemplate.patchForObject(URL + "/" + verified.getId() + "/verify", null, ApplicationDto.class);
+        ReasonDto reason = new ReasonDto();
+        reason.setReason("some reason");
+        restTemplate.exchange(URL + "/" + deleted.getId(), HttpMethod.DELETE, new HttpEntity<>(reason), String.class);
+
+        ApplicationStatsDto stats = restTemplate.getForObject(URL + "/stats", ApplicationStatsDto.class);
+
+        assertEquals(stats.getCounts().get(Status.CREATED), 1L);
+        assertEquals(stats.getCounts().get(Status.VERIFIED), 1L);
+        assertEquals(stats.getCounts().get(Status.PUBLISHED), 0L);
+        assertEquals(stats.getCounts().get(Status.DELETED), 1L);
+        assertEquals(stats.getTotal(), 2L);
+    }
+
+    private long lastDispatchedEventId() {
+        eventDispatcher.dispatch();
+        return eventRepository.findAll().stream()
+                .map(ApplicationEvent::getDispatchSequence)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0L);
+    }
+
+    private void insertEvent(long id, long applicationId) {
+        jdbcTemplate.update("INSERT INTO application_event (id, application_id, from_status, to_status, created_at) "
+                + "VALUES (?, ?, 'CREATED', 'VERIFIED', CURRENT_TIMESTAMP)", id, applicationId);
+    }
+
+    private List<ApplicationEventDto> readEvents(long lastEventId, int count) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(URL + "/events"))
+                .header("Last-Event-ID", String.valueOf(lastEventId))
+                .build();
+        return assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (Stream<String> lines = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofLines()).body()) {
+                List<ApplicationEventDto> events = new ArrayList<>();
+                Iterator<String> iterator = lines.filter(line -> line.startsWith("data:")).iterator();
+                while (events.size() < count) {
+                    events.add(objectMapper.readValue(iterator.next().substring("data:".length()), ApplicationEventDto.class));
+                }
+                return events;
+            }
+        });
+    }
+
+    private List<ApplicationAudDto> getAudit(Long id) throws JsonProcessingException {
+        String body = restTemplate.getForObject(URL + "/" + id + "/audit", String.class);
+        return objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private ApplicationDto publishApplication(ApplicationDto application) {
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/verify", null, ApplicationDto.class);
+        restTemplate.patchForObject(URL + "/" + application.getId() + "/accept", null, ApplicationDto.class);
+        return restTemplate.patchForObject(URL + "/" + application.getId() + "/publish", null, ApplicationDto.class);
+    }
+
+    private static HttpHeaders header(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
     }
 
     private ApplicationDto createApplication() {
@@ -0,0 +1,113 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.enums.Status;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the queries issued by {@link ApplicationRepository} through H2's EXPLAIN and checks that each one is
+ * answered from the index created for it in the migrations.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.lisowski.applicationmanagement.repository.ApplicationRepositoryIT$RecordingStatementInspector")
+public class ApplicationRepositoryIT {
+    @Autowired
+    private ApplicationRepository repository;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void shouldFindByApplicationNumberUsingUniqueIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findByApplicationNumber(1L), "IDX_APPLICATION_NUMBER");
+    }
+
+    @Test
+    public void shouldListByStatusUsingStatusIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findSummariesByNameOrStatus(null, Status.VERIFIED, PageRequest.ofSize(10)),
+                "IDX_APPLICATION_STATUS_ID");
+    }
+
+    @Test
+    public void shouldSeekByStatusUsingStatusIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findSummariesByNameOrStatusAfter(null, Status.VERIFIED, 10L, PageRequest.ofSize(10)),
+                "IDX_APPLICATION_STATUS_ID");
+        assertQueryUsesIndex(() -> repository.findByNameOrStatusAfter(null, Status.VERIFIED, 10L, PageRequest.ofSize(10)),
+                "IDX_APPLICATION_STATUS_ID");
+    }
+
+    @Test
+    public void shouldSeekWithoutStatusUsingPrimaryKey() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findSummariesByNameOrStatusAfter(null, null, 10L, PageRequest.ofSize(10)),
+                "PRIMARY_KEY");
+    }
+
+    @Test
+    public void shouldFindTombstonesToPurgeUsingStatusIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findDeletedIdsBefore(Instant.now(), PageRequest.ofSize(10)),
+                "IDX_APPLICATION_STATUS_ID");
+    }
+
+    @Test
+    public void shouldReadAuditHistoryUsingAuditIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findRevisions(1L), "IDX_APPLICATION_AUD_ID_REV");
+    }
+
+    @Test
+    public void shouldResolveAsOfRevisionUsingTimestampIndex() throws SQLException {
+        assertQueryUsesIndex(() -> repository.findAsOf(1L, Instant.now()), "IDX_REVINFO_REVTSTMP");
+    }
+
+    private void assertQueryUsesIndex(Runnable query, String index) throws SQLException {
+        List<String> statements = RecordingStatementInspector.STATEMENTS.get();
+        statements.clear();
+        query.run();
+        assertFalse(statements.isEmpty());
+
+        String plan = explain(statements.get(0));
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    /**
+     * Records statements per thread, so queries of scheduled jobs running in the background are not mistaken
+     * for the one under test.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+}
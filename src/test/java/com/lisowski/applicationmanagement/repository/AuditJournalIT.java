@@ -0,0 +1,149 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.service.ApplicationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.history.Revision;
+import org.springframework.data.history.RevisionMetadata;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that audit history written through the journal of the {@code async-audit} profile reads the same as
+ * history written by Envers directly.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:audit-journal",
+        "spring.jpa.properties.hibernate.cache.region_prefix=audit-journal",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "application.audit.async.drain-interval=PT1H"
+})
+@ActiveProfiles("async-audit")
+public class AuditJournalIT {
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AuditJournalWriter auditJournalWriter;
+
+    @Test
+    public void shouldWriteOneRevisionPerTransaction() {
+        Application application = applicationService.saveApplication(newApplication(), null);
+        applicationService.updateApplicationStatus(Status.VERIFIED, application.getId(), null);
+        applicationService.updateApplicationStatus(Status.REJECTED, application.getId(), "some reason");
+
+        List<Revision<Integer, Application>> revisions = applicationService.getAudit(application.getId()).getContent();
+
+        assertEquals(revisions.size(), 3);
+        assertEquals(revisions.get(0).getMetadata().getRevisionType(), RevisionMetadata.RevisionType.INSERT);
+        assertEquals(revisions.get(0).getEntity().getStatus(), Status.CREATED);
+        assertEquals(revisions.get(1).getMetadata().getRevisionType(), RevisionMetadata.RevisionType.UPDATE);
+        assertEquals(revisions.get(1).getEntity().getStatus(), Status.VERIFIED);
+        assertEquals(revisions.get(2).getEntity().getStatus(), Status.REJECTED);
+        assertEquals(revisions.get(2).getEntity().getReason(), "some reason");
+        assertTrue(revisions.get(1).getRequiredRevisionNumber() < revisions.get(2).getRequiredRevisionNumber());
+        assertTrue(revisions.get(2).getRequiredRevisionInstant().toEpochMilli() > 0);
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_journal", Long.class), 0L);
+    }
+
+    @Test
+    public void shouldMergeChangesWithinTransaction() {
+        Application application = transactionTemplate.execute(status -> {
+            Application created = applicationService.saveApplication(newApplication(), null);
+            created.setName("renamed");
+            return created;
+        });
+
+        List<Revision<Integer, Application>> revisions = applicationService.getAudit(application.getId()).getContent();
+
+        assertEquals(revisions.size(), 1);
+        assertEquals(revisions.get(0).getMetadata().getRevisionType(), RevisionMetadata.RevisionType.INSERT);
+        assertEquals(revisions.get(0).getEntity().getName(), "renamed");
+    }
+
+    @Test
+    public void shouldServeConcurrentReadsWithoutHoldingConnectionsWhileCatchingUp() throws Exception {
+        Application application = applicationService.saveApplication(newApplication(), null);
+        applicationService.updateApplicationStatus(Status.VERIFIED, application.getId(), null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> reads = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> applicationService.getAudit(application.getId()).getContent().size()))
+                    .toList();
+            for (Future<Integer> read : reads) {
+                assertEquals(read.get(10, TimeUnit.SECONDS), 2);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldWriteJournaledTransactionOnceWhenDrainedConcurrently() throws Exception {
+        Application application = applicationService.saveApplication(newApplication(), null);
+        assertEquals(applicationService.getAudit(application.getId()).getContent().size(), 1);
+        jdbcTemplate.update("INSERT INTO audit_journal (tx_id, revtstmp, revtype, application_id, name, body_hash, status) " +
+                        "VALUES (?, ?, 1, ?, 'renamed', ?, 'CREATED')",
+                UUID.randomUUID().toString(), System.currentTimeMillis(), application.getId(), application.getBodyHash());
+        AuditJournalWriter otherInstance = new AuditJournalWriter(jdbcTemplate, transactionTemplate, 1000, 100, Duration.ofSeconds(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> concurrentDrain = transactionTemplate.execute(status -> {
+                otherInstance.drain();
+                assertEquals(auditRows(application.getId()), 2L);
+                Future<?> drain = executor.submit(auditJournalWriter::drain);
+                awaitBlockedSession();
+                return drain;
+            });
+            concurrentDrain.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            otherInstance.close();
+        }
+
+        assertEquals(auditRows(application.getId()), 2L);
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_journal", Long.class), 0L);
+    }
+
+    private long auditRows(Long applicationId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM application_aud WHERE id = ?", Long.class, applicationId);
+    }
+
+    private void awaitBlockedSession() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Long.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "The concurrent drain did not wait for the claimed entries");
+            Thread.onSpinWait();
+        }
+    }
+
+    private Application newApplication() {
+        Application application = new Application();
+        application.setName("journaled app");
+        application.setBody("Something");
+        application.setStatus(Status.CREATED);
+        return application;
+    }
+}
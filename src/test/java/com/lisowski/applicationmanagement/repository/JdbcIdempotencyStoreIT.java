@@ -0,0 +1,50 @@
+package com.lisowski.applicationmanagement.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class JdbcIdempotencyStoreIT {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldReturnStoredResponseToLaterClaims() {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(1), Duration.ofMinutes(1));
+        String key = UUID.randomUUID().toString();
+
+        assertTrue(store.claim(key, "POST").isEmpty());
+        assertTrue(store.claim(key, "POST").orElseThrow().isPending());
+        store.complete(key, "{\"id\":1}");
+        Optional<IdempotencyRecord> replay = store.claim(key, "POST");
+
+        assertEquals(replay.orElseThrow().getResponse(), "{\"id\":1}");
+        assertEquals(replay.orElseThrow().getFingerprint(), "POST");
+    }
+
+    @Test
+    public void shouldReleaseFailedAndTakeOverAbandonedClaims() throws InterruptedException {
+        JdbcIdempotencyStore store = new JdbcIdempotencyStore(jdbcTemplate, Duration.ofHours(1), Duration.ZERO);
+        String released = UUID.randomUUID().toString();
+        String abandoned = UUID.randomUUID().toString();
+
+        store.claim(released, "POST");
+        store.release(released);
+        store.claim(abandoned, "POST");
+        Thread.sleep(5);
+
+        assertTrue(store.claim(released, "POST").isEmpty());
+        assertTrue(store.claim(abandoned, "POST").isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.lisowski.applicationmanagement.repository;
+
+import com.lisowski.applicationmanagement.model.Application;
+import com.lisowski.applicationmanagement.model.ApplicationContent;
+import com.lisowski.applicationmanagement.model.enums.Status;
+import com.lisowski.applicationmanagement.service.ApplicationService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against two separate in-memory databases. Nothing replicates between them, so the replica's content and
+ * heartbeat are written directly by the tests.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "application.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "application.datasource.replica.heartbeat-interval=PT1H",
+        "spring.jpa.properties.hibernate.cache.region_prefix=routing"})
+@ActiveProfiles("replica")
+public class ReadWriteRoutingIT {
+    private static final String NAME = "routed app";
+
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private ApplicationRepository applicationRepository;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setUp() {
+        Flyway.configure().dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM application");
+        replica.update("MERGE INTO application_content (hash, body) VALUES ('replica', X'00' || STRINGTOUTF8('on replica'))");
+        applicationRepository.deleteAll();
+        applicationService.saveApplication(new Application(null, NAME, ApplicationContent.of("on primary"), Status.CREATED, null, null, null, null), null);
+        replica.update("INSERT INTO application (id, name, body_hash, status, version) VALUES (1000000, ?, 'replica', 'CREATED', 0)", NAME);
+    }
+
+    @Test
+    public void shouldReadFromReplicaWhileItIsCurrent() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", OffsetDateTime.now(ZoneOffset.UTC));
+        replicaLagMonitor.check();
+
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(bodies(), List.of("on replica"));
+        assertEquals(new JdbcTemplate(primaryDataSource).queryForList("SELECT name FROM application", String.class), List.of(NAME));
+    }
+
+    @Test
+    public void shouldFallBackToPrimaryWhenReplicaLags() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertEquals(bodies(), List.of("on primary"));
+    }
+
+    private List<String> bodies() {
+        return applicationService.getApplications(PageRequest.ofSize(10), NAME, null)
+                .map(Application::getBody)
+                .toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.lisowski.applicationmanagement.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 10, meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "loaded";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<String>> followers = IntStream.range(0, 5)
+                    .mapToObj(i -> executor.submit(() -> singleFlight.execute(1L, () -> "loaded again")))
+                    .toList();
+            while (sharedCalls() < 5) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(leader.get(5, TimeUnit.SECONDS), "loaded");
+            for (Future<String> follower : followers) {
+                assertEquals(follower.get(5, TimeUnit.SECONDS), "loaded");
+            }
+            assertEquals(loads.get(), 1);
+            assertEquals(singleFlight.execute(1L, () -> "next load"), "next load");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRejectCallersBeyondWaiterLimit() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 0, meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+                loading.countDown();
+                await(release);
+                return "loaded";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            ResponseStatusException rejected =
+                    assertThrows(ResponseStatusException.class, () -> singleFlight.execute(1L, () -> "loaded again"));
+            release.countDown();
+
+            assertEquals(rejected.getStatusCode(), HttpStatus.SERVICE_UNAVAILABLE);
+            assertEquals(leader.get(5, TimeUnit.SECONDS), "loaded");
+            assertEquals(meterRegistry.get("application.single.flight.calls").tag("result", "rejected").counter().count(), 1.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double sharedCalls() {
+        return meterRegistry.get("application.single.flight.calls").tag("result", "shared").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.lisowski.applicationmanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    public void shouldAllowBurstThenHoldToRefillRate() {
+        TokenBucket bucket = new TokenBucket(3, 2, nanoTime::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(bucket.tryConsume(), Duration.ZERO);
+        }
+        assertEquals(bucket.tryConsume(), Duration.ofMillis(500));
+        nanoTime.addAndGet(Duration.ofMillis(200).toNanos());
+        assertEquals(bucket.tryConsume(), Duration.ofMillis(300));
+        nanoTime.addAndGet(Duration.ofMillis(300).toNanos());
+        assertEquals(bucket.tryConsume(), Duration.ZERO);
+    }
+
+    @Test
+    public void shouldNotRefillBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 10, nanoTime::get);
+        nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertEquals(bucket.tryConsume(), Duration.ZERO);
+        assertEquals(bucket.tryConsume(), Duration.ZERO);
+        assertEquals(bucket.tryConsume(), Duration.ofMillis(100));
+    }
+}